@@ -0,0 +1,301 @@
+package benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks dos caminhos quentes de ArvoreMorse
+ *
+ * O JMH exige que o benchmark esteja em um pacote, e classes de pacote nomeado não
+ * podem importar classes do pacote padrão (onde ficam as classes do projeto). Por isso
+ * os métodos são chamados por MethodHandles em campos static final, que o JIT inlina
+ * como se fossem chamadas diretas.
+ *
+ * Execução: mvn -Pbenchmark verify [-Djmh.filtro=codificar]
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArvoreMorseBenchmark {
+    private static final String LETRAS_PADRAO = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final int TAMANHO_CORPUS = 1024;
+
+    private static final MethodHandle NOVA_ARVORE;
+    private static final MethodHandle ADICIONAR_LETRA;
+    private static final MethodHandle REMOVER_LETRA;
+    private static final MethodHandle BUSCAR_LETRA;
+    private static final MethodHandle CODIFICAR_PALAVRA;
+    private static final MethodHandle DECODIFICAR_PALAVRA;
+    private static final MethodHandle NOVO_CODIFICADOR_BYTES;
+    private static final MethodHandle NOVO_DECODIFICADOR_BYTES;
+    private static final MethodHandle CODIFICAR_BYTES;
+    private static final MethodHandle DECODIFICAR_BYTES;
+    private static final MethodHandle FINALIZAR_BYTES;
+    private static final MethodHandle NOVO_PROCESSADOR_PARALELO;
+    private static final MethodHandle CODIFICAR_PARALELO;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> arvore = Class.forName("ArvoreMorse");
+            MethodType generico = MethodType.methodType(Object.class);
+
+            NOVA_ARVORE = lookup.findConstructor(arvore, MethodType.methodType(void.class)).asType(generico);
+            ADICIONAR_LETRA = lookup.findVirtual(arvore, "adicionarLetra", MethodType.methodType(String.class, char.class))
+                    .asType(MethodType.methodType(String.class, Object.class, char.class));
+            REMOVER_LETRA = lookup.findVirtual(arvore, "removerLetra", MethodType.methodType(boolean.class, char.class))
+                    .asType(MethodType.methodType(boolean.class, Object.class, char.class));
+            BUSCAR_LETRA = lookup.findVirtual(arvore, "buscarLetra", MethodType.methodType(String.class, char.class))
+                    .asType(MethodType.methodType(String.class, Object.class, char.class));
+            CODIFICAR_PALAVRA = lookup.findVirtual(arvore, "codificarPalavra", MethodType.methodType(String.class, String.class))
+                    .asType(MethodType.methodType(String.class, Object.class, String.class));
+            DECODIFICAR_PALAVRA = lookup.findVirtual(arvore, "decodificarPalavra", MethodType.methodType(String.class, String.class))
+                    .asType(MethodType.methodType(String.class, Object.class, String.class));
+
+            Class<?> codificadorBytes = Class.forName("CodificadorBytes");
+            Class<?> decodificadorBytes = Class.forName("DecodificadorBytes");
+            Class<?> ouvinte = Class.forName("OuvinteLetraDesconhecida");
+            MethodType conversao = MethodType.methodType(CoderResult.class, ByteBuffer.class, ByteBuffer.class);
+            NOVO_CODIFICADOR_BYTES = lookup.findConstructor(codificadorBytes, MethodType.methodType(void.class, arvore, ouvinte))
+                    .asType(MethodType.methodType(Object.class, Object.class, Object.class));
+            NOVO_DECODIFICADOR_BYTES = lookup.findConstructor(decodificadorBytes, MethodType.methodType(void.class, arvore))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            CODIFICAR_BYTES = lookup.findVirtual(codificadorBytes, "codificar", conversao)
+                    .asType(conversao.insertParameterTypes(0, Object.class));
+            DECODIFICAR_BYTES = lookup.findVirtual(decodificadorBytes, "decodificar", conversao)
+                    .asType(conversao.insertParameterTypes(0, Object.class));
+            FINALIZAR_BYTES = lookup.findVirtual(decodificadorBytes, "finalizar", MethodType.methodType(CoderResult.class, ByteBuffer.class))
+                    .asType(MethodType.methodType(CoderResult.class, Object.class, ByteBuffer.class));
+
+            Class<?> processadorParalelo = Class.forName("ProcessadorParalelo");
+            NOVO_PROCESSADOR_PARALELO = lookup.findConstructor(processadorParalelo, MethodType.methodType(void.class, arvore))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            CODIFICAR_PARALELO = lookup.findVirtual(processadorParalelo, "codificarPalavra", MethodType.methodType(String.class, String.class))
+                    .asType(MethodType.methodType(String.class, Object.class, String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Corpus usado nas entradas:
+     * PALAVRAS_CURTAS - palavras isoladas de 2 a 8 letras
+     * FRASES_LONGAS - frases com dezenas de palavras
+     * CODIGOS_ALEATORIOS - sequências aleatórias de pontos e traços (decodificação)
+     * MUITAS_FALHAS - entradas com letras/códigos ausentes da árvore
+     */
+    @Param({"PALAVRAS_CURTAS", "FRASES_LONGAS", "CODIGOS_ALEATORIOS", "MUITAS_FALHAS"})
+    public String corpus;
+
+    private Object arvore;
+    private String[] textos;
+    private String[] codigos;
+    private char[] letras;
+    private int indice;
+
+    // Caminho por bytes: entradas ASCII em buffers diretos, como vindas da rede
+    private Object codificadorBytes;
+    private Object decodificadorBytes;
+    private ByteBuffer[] textosBytes;
+    private ByteBuffer[] codigosBytes;
+    private ByteBuffer saidaBytes;
+
+    @Setup
+    public void preparar() throws Throwable {
+        arvore = novaArvoreCompleta();
+        Random aleatorio = new Random(42);
+        textos = new String[TAMANHO_CORPUS];
+        codigos = new String[TAMANHO_CORPUS];
+
+        for (int i = 0; i < TAMANHO_CORPUS; i++) {
+            switch (corpus) {
+                case "PALAVRAS_CURTAS":
+                    textos[i] = palavra(aleatorio, LETRAS_PADRAO, 2 + aleatorio.nextInt(7));
+                    break;
+                case "FRASES_LONGAS":
+                    StringBuilder frase = new StringBuilder();
+                    int palavras = 20 + aleatorio.nextInt(40);
+                    for (int p = 0; p < palavras; p++) {
+                        if (p > 0) {
+                            frase.append(' ');
+                        }
+                        frase.append(palavra(aleatorio, LETRAS_PADRAO, 2 + aleatorio.nextInt(7)));
+                    }
+                    textos[i] = frase.toString();
+                    break;
+                case "CODIGOS_ALEATORIOS":
+                    textos[i] = palavra(aleatorio, LETRAS_PADRAO, 2 + aleatorio.nextInt(7));
+                    break;
+                default:
+                    // Metade dos caracteres sem código na árvore
+                    textos[i] = palavra(aleatorio, LETRAS_PADRAO + "#$%&@!?;:ÇÃÉ[]{}<>|~^`", 2 + aleatorio.nextInt(7));
+                    break;
+            }
+
+            if (corpus.equals("CODIGOS_ALEATORIOS") || corpus.equals("MUITAS_FALHAS")) {
+                codigos[i] = codigosAleatorios(aleatorio, 1 + aleatorio.nextInt(8));
+            } else {
+                codigos[i] = (String) CODIFICAR_PALAVRA.invokeExact(arvore, textos[i]);
+            }
+        }
+
+        StringBuilder todasLetras = new StringBuilder();
+        for (String texto : textos) {
+            todasLetras.append(texto.replace(" ", ""));
+        }
+        letras = todasLetras.toString().toCharArray();
+
+        codificadorBytes = NOVO_CODIFICADOR_BYTES.invokeExact(arvore, (Object) null);
+        decodificadorBytes = NOVO_DECODIFICADOR_BYTES.invokeExact(arvore);
+        textosBytes = new ByteBuffer[TAMANHO_CORPUS];
+        codigosBytes = new ByteBuffer[TAMANHO_CORPUS];
+        int maior = 0;
+        for (int i = 0; i < TAMANHO_CORPUS; i++) {
+            textosBytes[i] = direto(textos[i]);
+            codigosBytes[i] = direto(codigos[i]);
+            maior = Math.max(maior, codigos[i].length() + textos[i].length() * 8);
+        }
+        saidaBytes = ByteBuffer.allocateDirect(maior + 16);
+
+        conferirParalelo(aleatorio);
+    }
+
+    /**
+     * Confere que a codificação paralela dá o mesmo resultado da sequencial em um
+     * texto grande o bastante para ser dividido, com quebras de linha entre as palavras
+     */
+    private void conferirParalelo(Random aleatorio) throws Throwable {
+        StringBuilder texto = new StringBuilder();
+        while (texto.length() < 256 * 1024) {
+            texto.append(palavra(aleatorio, LETRAS_PADRAO, 2 + aleatorio.nextInt(7)));
+            int separador = aleatorio.nextInt(8);
+            texto.append(separador == 0 ? "\n" : separador == 1 ? "\r\n" : " ");
+        }
+
+        String entrada = texto.toString();
+        String sequencial = (String) CODIFICAR_PALAVRA.invokeExact(arvore, entrada);
+        Object processador = NOVO_PROCESSADOR_PARALELO.invokeExact(arvore);
+        String paralelo = (String) CODIFICAR_PARALELO.invokeExact(processador, entrada);
+        if (!sequencial.equals(paralelo)) {
+            throw new IllegalStateException("Codificação paralela difere da sequencial");
+        }
+    }
+
+    private static ByteBuffer direto(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+
+    @Benchmark
+    public Object adicionarLetra() throws Throwable {
+        Object nova = NOVA_ARVORE.invokeExact();
+        for (int i = 0; i < LETRAS_PADRAO.length(); i++) {
+            String codigo = (String) ADICIONAR_LETRA.invokeExact(nova, LETRAS_PADRAO.charAt(i));
+        }
+        return nova;
+    }
+
+    @Benchmark
+    public String buscarLetra() throws Throwable {
+        return (String) BUSCAR_LETRA.invokeExact(arvore, letras[proximo(letras.length)]);
+    }
+
+    @Benchmark
+    public String codificarPalavra() throws Throwable {
+        return (String) CODIFICAR_PALAVRA.invokeExact(arvore, textos[proximo(TAMANHO_CORPUS)]);
+    }
+
+    @Benchmark
+    public String decodificarPalavra() throws Throwable {
+        return (String) DECODIFICAR_PALAVRA.invokeExact(arvore, codigos[proximo(TAMANHO_CORPUS)]);
+    }
+
+    @Benchmark
+    public ByteBuffer codificarBytes() throws Throwable {
+        ByteBuffer entrada = textosBytes[proximo(TAMANHO_CORPUS)];
+        entrada.rewind();
+        saidaBytes.clear();
+        CoderResult resultado = (CoderResult) CODIFICAR_BYTES.invokeExact(codificadorBytes, entrada, saidaBytes);
+        return saidaBytes;
+    }
+
+    @Benchmark
+    public ByteBuffer decodificarBytes() throws Throwable {
+        ByteBuffer entrada = codigosBytes[proximo(TAMANHO_CORPUS)];
+        entrada.rewind();
+        saidaBytes.clear();
+        CoderResult resultado = (CoderResult) DECODIFICAR_BYTES.invokeExact(decodificadorBytes, entrada, saidaBytes);
+        resultado = (CoderResult) FINALIZAR_BYTES.invokeExact(decodificadorBytes, saidaBytes);
+        return saidaBytes;
+    }
+
+    /**
+     * Remove uma letra e a adiciona de volta, para que a árvore não se esvazie
+     * entre invocações (o tempo medido inclui o adicionarLetra)
+     */
+    @Benchmark
+    public boolean removerLetra() throws Throwable {
+        char letra = letras[proximo(letras.length)];
+        boolean removeu = (boolean) REMOVER_LETRA.invokeExact(arvore, letra);
+        String codigo = (String) ADICIONAR_LETRA.invokeExact(arvore, letra);
+        return removeu;
+    }
+
+    private int proximo(int limite) {
+        int atual = indice;
+        indice = atual + 1 == limite ? 0 : atual + 1;
+        return atual >= limite ? 0 : atual;
+    }
+
+    private static Object novaArvoreCompleta() throws Throwable {
+        Object nova = NOVA_ARVORE.invokeExact();
+        for (int i = 0; i < LETRAS_PADRAO.length(); i++) {
+            String codigo = (String) ADICIONAR_LETRA.invokeExact(nova, LETRAS_PADRAO.charAt(i));
+        }
+        return nova;
+    }
+
+    private static String palavra(Random aleatorio, String alfabeto, int tamanho) {
+        char[] letras = new char[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            letras[i] = alfabeto.charAt(aleatorio.nextInt(alfabeto.length()));
+        }
+        return new String(letras);
+    }
+
+    private static String codigosAleatorios(Random aleatorio, int quantidade) {
+        StringBuilder resultado = new StringBuilder();
+        for (int i = 0; i < quantidade; i++) {
+            if (i > 0) {
+                resultado.append(' ');
+            }
+            int tamanho = 1 + aleatorio.nextInt(6);
+            for (int s = 0; s < tamanho; s++) {
+                resultado.append(aleatorio.nextBoolean() ? '.' : '-');
+            }
+        }
+        return resultado.toString();
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Forma "congelada" da árvore Morse, armazenada como heap implícito em um char[]
+ * Raiz = posição 0, filho do ponto = 2i + 1, filho do traço = 2i + 2
+ *
+ * Para um código de comprimento n com bits b (ponto = 0, traço = 1, do primeiro
+ * símbolo para o último), a posição é (2^n - 1) + b. Posições sem letra guardam '\0'.
+ */
+public class ArvoreCompilada implements TabelaDecodificacao {
+    // Profundidade máxima aceita (2^17 - 1 posições = 256 KB de char[])
+    public static final int PROFUNDIDADE_MAXIMA = 16;
+
+    private final char[] letras;
+    private final int profundidade;
+
+    private ArvoreCompilada(char[] letras, int profundidade) {
+        this.letras = letras;
+        this.profundidade = profundidade;
+    }
+
+    /**
+     * Compila uma árvore de nós para o formato de heap implícito
+     * @param raiz Raiz da árvore (pode ser null)
+     * @return Árvore compilada, ou null se a árvore for mais profunda que PROFUNDIDADE_MAXIMA
+     */
+    public static ArvoreCompilada compilar(No raiz) {
+        int profundidade = calcularProfundidade(raiz);
+        if (profundidade > PROFUNDIDADE_MAXIMA) {
+            return null;
+        }
+
+        char[] letras = new char[(1 << (profundidade + 1)) - 1];
+        preencher(raiz, 0, letras);
+        return new ArvoreCompilada(letras, profundidade);
+    }
+
+    private static int calcularProfundidade(No atual) {
+        if (atual == null) {
+            return -1;
+        }
+        return 1 + Math.max(calcularProfundidade(atual.getEsquerda()), calcularProfundidade(atual.getDireita()));
+    }
+
+    private static void preencher(No atual, int posicao, char[] letras) {
+        if (atual == null) {
+            return;
+        }
+
+        if (!atual.isVazio()) {
+            letras[posicao] = atual.getLetra();
+        }
+
+        preencher(atual.getEsquerda(), 2 * posicao + 1, letras);
+        preencher(atual.getDireita(), 2 * posicao + 2, letras);
+    }
+
+    @Override
+    public char decodificarSimbolo(int comprimento, int bits) {
+        if (comprimento > profundidade) {
+            return '\0';
+        }
+        return letras[(1 << comprimento) - 1 + bits];
+    }
+
+    @Override
+    public char decodificarCodigo(CharSequence texto, int inicio, int fim) {
+        int comprimento = fim - inicio;
+        if (comprimento > profundidade) {
+            return '\0';
+        }
+
+        int posicao = 0;
+        for (int i = inicio; i < fim; i++) {
+            char simbolo = texto.charAt(i);
+            if (simbolo == '.') {
+                posicao = 2 * posicao + 1;
+            } else if (simbolo == '-') {
+                posicao = 2 * posicao + 2;
+            } else {
+                return '\0';
+            }
+        }
+
+        return letras[posicao];
+    }
+
+    @Override
+    public int getProfundidade() {
+        return profundidade;
+    }
+}
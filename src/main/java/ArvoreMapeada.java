@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot binário da árvore, lido direto de um arquivo mapeado em memória
+ *
+ * Formato (big-endian):
+ *   int    MAGICO ("MRSE")
+ *   int    VERSAO_FORMATO
+ *   int    profundidade (-1 = árvore vazia)
+ *   int    quantidade de letras (n)
+ *   char[] letra de cada posição do heap implícito, 2^(profundidade+1) - 1 posições ('\0' = vazia)
+ *   n x (char letra, int posição no heap), ordenado pela letra
+ *   int    CRC32 de todos os bytes anteriores
+ *
+ * O heap é a própria tabela de decodificação e a lista ordenada é a tabela de
+ * codificação, então abrir o snapshot não constrói nós: vários processos podem
+ * mapear o mesmo arquivo e decodificar imediatamente. O cabeçalho, o CRC e as
+ * posições da tabela de codificação são verificados na abertura.
+ */
+public class ArvoreMapeada implements TabelaDecodificacao {
+    public static final int MAGICO = 0x4D525345;
+    public static final int VERSAO_FORMATO = 1;
+
+    private static final int TAMANHO_CABECALHO = 16;
+    private static final int TAMANHO_ENTRADA = 6;
+    private static final int TAMANHO_CRC = 4;
+
+    private final ByteBuffer dados;
+    private final int profundidade;
+    private final int quantidadeLetras;
+    private final int inicioTabela;
+
+    private ArvoreMapeada(ByteBuffer dados, int profundidade, int quantidadeLetras) {
+        this.dados = dados;
+        this.profundidade = profundidade;
+        this.quantidadeLetras = quantidadeLetras;
+        this.inicioTabela = TAMANHO_CABECALHO + 2 * quantidadePosicoes(profundidade);
+    }
+
+    private static int quantidadePosicoes(int profundidade) {
+        return (1 << (profundidade + 1)) - 1;
+    }
+
+    /**
+     * Grava o snapshot da árvore. O arquivo é escrito ao lado e depois renomeado,
+     * então quem já mapeou a versão anterior nunca vê um arquivo pela metade.
+     * @throws IllegalStateException se a árvore for mais profunda que PROFUNDIDADE_MAXIMA
+     */
+    public static void salvar(ArvoreMorse arvore, Path arquivo) throws IOException {
+        ArvoreCompilada compilada = arvore.compilar();
+        if (compilada == null) {
+            throw new IllegalStateException("Árvore profunda demais para o snapshot");
+        }
+
+        int profundidade = compilada.getProfundidade();
+        int posicoes = quantidadePosicoes(profundidade);
+        char[] letras = new char[posicoes];
+        int quantidadeLetras = 0;
+        for (int n = 0; n <= profundidade; n++) {
+            for (int bits = 0; bits < (1 << n); bits++) {
+                char letra = compilada.decodificarSimbolo(n, bits);
+                letras[(1 << n) - 1 + bits] = letra;
+                if (letra != '\0') {
+                    quantidadeLetras++;
+                }
+            }
+        }
+
+        // Tabela de codificação: (letra, posição) ordenada pela letra
+        long[] tabela = new long[quantidadeLetras];
+        int k = 0;
+        for (int posicao = 0; posicao < posicoes; posicao++) {
+            if (letras[posicao] != '\0') {
+                tabela[k++] = ((long) letras[posicao] << 32) | posicao;
+            }
+        }
+        Arrays.sort(tabela);
+
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_CABECALHO + 2 * posicoes
+                + TAMANHO_ENTRADA * quantidadeLetras + TAMANHO_CRC);
+        buffer.putInt(MAGICO).putInt(VERSAO_FORMATO).putInt(profundidade).putInt(quantidadeLetras);
+        for (char letra : letras) {
+            buffer.putChar(letra);
+        }
+        for (long entrada : tabela) {
+            buffer.putChar((char) (entrada >>> 32)).putInt((int) entrada);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+        try {
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Mapeia um snapshot somente para leitura e verifica cabeçalho, tamanho, CRC e tabela
+     * @throws IOException se o arquivo não puder ser lido ou não for um snapshot válido
+     */
+    public static ArvoreMapeada abrir(Path arquivo) throws IOException {
+        ByteBuffer dados;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_CABECALHO + TAMANHO_CRC || tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot inválido: tamanho " + tamanho + " bytes");
+            }
+            // O mapeamento continua válido depois de fechar o canal
+            dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+        }
+
+        if (dados.getInt(0) != MAGICO) {
+            throw new IOException("Snapshot inválido: arquivo não é um snapshot de árvore Morse");
+        }
+        int versao = dados.getInt(4);
+        if (versao != VERSAO_FORMATO) {
+            throw new IOException("Snapshot inválido: versão " + versao + " não suportada (esperada "
+                    + VERSAO_FORMATO + ")");
+        }
+
+        int profundidade = dados.getInt(8);
+        int quantidadeLetras = dados.getInt(12);
+        if (profundidade < -1 || profundidade > ArvoreCompilada.PROFUNDIDADE_MAXIMA
+                || quantidadeLetras < 0 || quantidadeLetras > quantidadePosicoes(profundidade)) {
+            throw new IOException("Snapshot inválido: cabeçalho corrompido");
+        }
+        long esperado = TAMANHO_CABECALHO + 2L * quantidadePosicoes(profundidade)
+                + (long) TAMANHO_ENTRADA * quantidadeLetras + TAMANHO_CRC;
+        if (dados.capacity() != esperado) {
+            throw new IOException("Snapshot inválido: " + dados.capacity() + " bytes, esperados " + esperado);
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer conteudo = dados.duplicate();
+        conteudo.limit(dados.capacity() - TAMANHO_CRC);
+        crc.update(conteudo);
+        if ((int) crc.getValue() != dados.getInt(dados.capacity() - TAMANHO_CRC)) {
+            throw new IOException("Snapshot inválido: CRC32 não confere");
+        }
+
+        // O CRC só detecta corrupção: um arquivo montado à mão ainda pode apontar para
+        // fora do heap ou para posições vazias, e a busca binária exige a ordem
+        ArvoreMapeada snapshot = new ArvoreMapeada(dados, profundidade, quantidadeLetras);
+        int posicoes = quantidadePosicoes(profundidade);
+        for (int i = 0; i < quantidadeLetras; i++) {
+            char letra = snapshot.getLetra(i);
+            int posicao = snapshot.getPosicao(i);
+            if (posicao < 0 || posicao >= posicoes || letra == '\0' || snapshot.letraNaPosicao(posicao) != letra) {
+                throw new IOException("Snapshot inválido: entrada " + i + " da tabela de codificação não confere com o heap");
+            }
+            if (i > 0 && snapshot.getLetra(i - 1) >= letra) {
+                throw new IOException("Snapshot inválido: tabela de codificação fora de ordem");
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public char decodificarSimbolo(int comprimento, int bits) {
+        if (comprimento > profundidade) {
+            return '\0';
+        }
+        return letraNaPosicao((1 << comprimento) - 1 + bits);
+    }
+
+    @Override
+    public char decodificarCodigo(CharSequence texto, int inicio, int fim) {
+        int comprimento = fim - inicio;
+        if (comprimento > profundidade) {
+            return '\0';
+        }
+
+        int posicao = 0;
+        for (int i = inicio; i < fim; i++) {
+            char simbolo = texto.charAt(i);
+            if (simbolo == '.') {
+                posicao = 2 * posicao + 1;
+            } else if (simbolo == '-') {
+                posicao = 2 * posicao + 2;
+            } else {
+                return '\0';
+            }
+        }
+
+        return letraNaPosicao(posicao);
+    }
+
+    private char letraNaPosicao(int posicao) {
+        return dados.getChar(TAMANHO_CABECALHO + 2 * posicao);
+    }
+
+    /**
+     * Busca o código de uma letra na tabela ordenada (busca binária)
+     * @return Código Morse ou null se a letra não estiver no snapshot
+     */
+    public String buscarLetra(char letra) {
+        int inicio = 0;
+        int fim = quantidadeLetras - 1;
+        while (inicio <= fim) {
+            int meio = (inicio + fim) >>> 1;
+            char atual = getLetra(meio);
+            if (atual < letra) {
+                inicio = meio + 1;
+            } else if (atual > letra) {
+                fim = meio - 1;
+            } else {
+                return codigoDaPosicao(getPosicao(meio));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converte uma posição do heap implícito no código Morse correspondente
+     */
+    static String codigoDaPosicao(int posicao) {
+        char[] codigo = new char[32 - Integer.numberOfLeadingZeros(posicao + 1) - 1];
+        for (int i = codigo.length - 1; i >= 0; i--) {
+            // Filho do ponto tem posição ímpar, filho do traço tem posição par
+            codigo[i] = (posicao & 1) == 1 ? '.' : '-';
+            posicao = (posicao - 1) / 2;
+        }
+        return new String(codigo);
+    }
+
+    /**
+     * Retorna a i-ésima letra da tabela de codificação (em ordem crescente)
+     */
+    public char getLetra(int indice) {
+        return dados.getChar(inicioTabela + TAMANHO_ENTRADA * indice);
+    }
+
+    /**
+     * Retorna a posição no heap da i-ésima letra da tabela de codificação
+     */
+    public int getPosicao(int indice) {
+        return dados.getInt(inicioTabela + TAMANHO_ENTRADA * indice + 2);
+    }
+
+    public int getQuantidadeLetras() {
+        return quantidadeLetras;
+    }
+
+    @Override
+    public int getProfundidade() {
+        return profundidade;
+    }
+}
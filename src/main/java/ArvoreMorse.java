@@ -1,13 +1,35 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Árvore Binária para Código Morse Internacional
  * Ponto (.) = esquerda
  * Traço (-) = direita
  */
 public class ArvoreMorse {
+    // Páginas do índice letra -> código (256 letras por página, criadas sob demanda)
+    private static final int PAGINAS_INDICE = 256;
+    // Maior código representável no formato binário (campo de comprimento de 3 bits)
+    public static final int COMPRIMENTO_MAXIMO_BINARIO = 7;
+    // Tamanho aproximado de um No na JVM (cabeçalho + letra + flag + 2 referências)
+    public static final int BYTES_POR_NO = 24;
+    
     private No raiz;
+    private String[][] indiceCodigos; // Índice reverso paginado: letra -> código Morse
+    private ArvoreCompilada arvoreCompilada; // Forma congelada para decodificação (null = desatualizada)
+    private boolean profundaDemais; // A versão atual não cabe na forma compilada (não tenta de novo)
+    private CacheCodificacao cacheCodificacao; // Palavras já codificadas (null = desativado)
+    private long versao; // Incrementada a cada alteração (usada pelo visualizador)
+    private ContadorVisitas contadorVisitas; // Uso de cada posição (null = desativado)
+    private Map<String, TabelaCodigos> tabelas = new HashMap<>(); // Tabelas de códigos por nome
     
     public ArvoreMorse() {
         this.raiz = null;
+        this.indiceCodigos = new String[PAGINAS_INDICE][];
     }
     
     /**
@@ -16,7 +38,7 @@ public class ArvoreMorse {
      * @return Código Morse padrão ou null se não existir
      */
     private String obterCodigoMorsePadrao(char letra) {
-        letra = Character.toUpperCase(letra);
+        letra = DobraCaracteres.maiuscula(letra);
         
         switch (letra) {
             // Letras A-Z
@@ -69,104 +91,220 @@ public class ArvoreMorse {
      * @return O código Morse da letra adicionada, ou null se letra inválida
      */
     public String adicionarLetra(char letra) {
-        letra = Character.toUpperCase(letra);
+        letra = DobraCaracteres.maiuscula(letra);
         
         String codigoMorse = obterCodigoMorsePadrao(letra);
         if (codigoMorse == null) {
             return null; // Letra não tem código Morse padrão
         }
         
-        if (raiz == null) {
-            raiz = new No();
-        }
-        
-        adicionarLetraRecursivo(raiz, letra, codigoMorse, 0);
+        // Tira a letra do código antigo e a letra que já ocupava o código padrão
+        adicionarCodigo(letra, codigoMorse);
         return codigoMorse;
     }
     
-    private void adicionarLetraRecursivo(No atual, char letra, String codigo, int indice) {
-        // Caso base: chegamos ao fim do código
-        if (indice == codigo.length()) {
-            atual.setLetra(letra);
-            atual.setVazio(false);
-            return;
+    /**
+     * Adiciona uma letra com um código qualquer (tabelas personalizadas e snapshots).
+     * Substitui o código anterior da letra e a letra que já ocupava o código.
+     * @param letra Letra a ser adicionada
+     * @param codigo Código de pontos e traços
+     * @return true se adicionou, false se o código for vazio ou tiver outros símbolos
+     */
+    boolean adicionarCodigo(char letra, String codigo) {
+        letra = DobraCaracteres.maiuscula(letra);
+        if (codigo.isEmpty() || !codigo.chars().allMatch(c -> c == '.' || c == '-')) {
+            return false;
         }
         
-        char simbolo = codigo.charAt(indice);
+        String anterior = codigoDe(letra);
+        if (codigo.equals(anterior)) {
+            return true;
+        }
+        if (anterior != null) {
+            removerLetra(letra);
+        }
         
-        if (simbolo == '.') {
-            // Ir para esquerda (ponto)
-            if (atual.getEsquerda() == null) {
-                atual.setEsquerda(new No());
+        if (raiz == null) {
+            raiz = new No();
+        }
+        No atual = raiz;
+        for (int i = 0; i < codigo.length(); i++) {
+            No proximo = codigo.charAt(i) == '.' ? atual.getEsquerda() : atual.getDireita();
+            if (proximo == null) {
+                proximo = new No();
+                if (codigo.charAt(i) == '.') {
+                    atual.setEsquerda(proximo);
+                } else {
+                    atual.setDireita(proximo);
+                }
             }
-            adicionarLetraRecursivo(atual.getEsquerda(), letra, codigo, indice + 1);
-        } else if (simbolo == '-') {
-            // Ir para direita (traço)
-            if (atual.getDireita() == null) {
-                atual.setDireita(new No());
+            atual = proximo;
+        }
+        
+        if (!atual.isVazio()) {
+            indexarCodigo(atual.getLetra(), null);
+        }
+        atual.setLetra(letra);
+        atual.setVazio(false);
+        indexarCodigo(letra, codigo);
+        invalidarDerivados();
+        return true;
+    }
+    
+    /**
+     * Grava a árvore como snapshot binário (ver ArvoreMapeada)
+     * @throws IllegalStateException se a árvore for mais profunda que ArvoreCompilada.PROFUNDIDADE_MAXIMA
+     */
+    public void salvarSnapshot(Path arquivo) throws IOException {
+        ArvoreMapeada.salvar(this, arquivo);
+    }
+    
+    /**
+     * Cria uma árvore a partir de um snapshot gravado por salvarSnapshot
+     * @throws IOException se o arquivo não puder ser lido ou estiver corrompido
+     */
+    public static ArvoreMorse carregarSnapshot(Path arquivo) throws IOException {
+        ArvoreMapeada snapshot = ArvoreMapeada.abrir(arquivo);
+        ArvoreMorse arvore = new ArvoreMorse();
+        if (snapshot.getProfundidade() >= 0) {
+            arvore.raiz = new No();
+        }
+        for (int i = 0; i < snapshot.getQuantidadeLetras(); i++) {
+            String codigo = ArvoreMapeada.codigoDaPosicao(snapshot.getPosicao(i));
+            if (codigo.isEmpty()) {
+                arvore.raiz.setLetra(snapshot.getLetra(i));
+                arvore.indexarCodigo(snapshot.getLetra(i), codigo);
+            } else {
+                arvore.adicionarCodigo(snapshot.getLetra(i), codigo);
             }
-            adicionarLetraRecursivo(atual.getDireita(), letra, codigo, indice + 1);
         }
+        return arvore;
     }
     
     /**
-     * Remove uma letra da árvore (marca como vazia)
+     * Remove uma letra da árvore
+     * O nó é localizado pelo código da letra. Se ficar sem filhos, ele e os ancestrais
+     * vazios que só levavam a ele são desligados da árvore; senão, é marcado como vazio.
      * @param letra Letra a ser removida
      * @return true se removeu, false se não encontrou
      */
     public boolean removerLetra(char letra) {
-        letra = Character.toUpperCase(letra);
-        return removerLetraRecursivo(raiz, letra);
-    }
-    
-    private boolean removerLetraRecursivo(No atual, char letra) {
-        if (atual == null) {
+        letra = DobraCaracteres.maiuscula(letra);
+        String codigo = codigoDe(letra);
+        if (codigo == null) {
             return false;
         }
         
-        // Verifica se este nó contém a letra
-        if (!atual.isVazio() && atual.getLetra() == letra) {
-            atual.setVazio(true);
-            return true;
+        // Caminho da raiz até o nó da letra
+        No[] caminho = new No[codigo.length() + 1];
+        caminho[0] = raiz;
+        for (int i = 0; i < codigo.length(); i++) {
+            caminho[i + 1] = codigo.charAt(i) == '.' ? caminho[i].getEsquerda() : caminho[i].getDireita();
         }
+        caminho[codigo.length()].setVazio(true);
         
-        // Busca recursivamente nos filhos
-        boolean encontrado = removerLetraRecursivo(atual.getEsquerda(), letra);
-        if (encontrado) {
-            return true;
+        // Poda a cadeia de folhas vazias até o primeiro ancestral vivo (a raiz é mantida)
+        for (int i = codigo.length(); i > 0; i--) {
+            No atual = caminho[i];
+            if (!atual.isVazio() || atual.getEsquerda() != null || atual.getDireita() != null) {
+                break;
+            }
+            if (codigo.charAt(i - 1) == '.') {
+                caminho[i - 1].setEsquerda(null);
+            } else {
+                caminho[i - 1].setDireita(null);
+            }
         }
         
-        return removerLetraRecursivo(atual.getDireita(), letra);
+        indexarCodigo(letra, null);
+        invalidarDerivados();
+        return true;
     }
     
     /**
-     * Busca o código Morse de uma letra
-     * @param letra Letra a buscar
-     * @return Código Morse ou null se não encontrado
+     * Reconstrói a árvore sem os nós vazios que não levam a nenhuma letra
+     * (restos de remoções antigas ou de árvores carregadas de outra forma)
+     * @return Quantidade de nós liberados (cada nó ocupa cerca de BYTES_POR_NO bytes)
      */
-    public String buscarLetra(char letra) {
-        letra = Character.toUpperCase(letra);
-        return buscarLetraRecursivo(raiz, letra, "");
+    public int compactar() {
+        if (raiz == null) {
+            return 0;
+        }
+        
+        int antes = contarNos();
+        No compacta = compactarRecursivo(raiz);
+        raiz = compacta != null ? compacta : new No();
+        int liberados = antes - contarNos();
+        
+        if (liberados > 0) {
+            invalidarDerivados();
+        }
+        return liberados;
     }
     
-    private String buscarLetraRecursivo(No atual, char letra, String caminhoAtual) {
+    /**
+     * @return Cópia da subárvore sem ramos vazios, ou null se ela não tiver letras
+     */
+    private No compactarRecursivo(No atual) {
         if (atual == null) {
             return null;
         }
         
-        // Verifica se encontrou a letra neste nó
-        if (!atual.isVazio() && atual.getLetra() == letra) {
-            return caminhoAtual;
+        No esquerda = compactarRecursivo(atual.getEsquerda());
+        No direita = compactarRecursivo(atual.getDireita());
+        if (atual.isVazio() && esquerda == null && direita == null) {
+            return null;
         }
         
-        // Busca na esquerda (ponto)
-        String resultado = buscarLetraRecursivo(atual.getEsquerda(), letra, caminhoAtual + ".");
-        if (resultado != null) {
-            return resultado;
+        No novo = atual.isVazio() ? new No() : new No(atual.getLetra());
+        if (atual.isRemovida()) {
+            novo.setVazio(true);
+        }
+        novo.setEsquerda(esquerda);
+        novo.setDireita(direita);
+        return novo;
+    }
+    
+    /**
+     * Busca o código Morse de uma letra
+     * @param letra Letra a buscar
+     * @return Código Morse ou null se não encontrado
+     */
+    public String buscarLetra(char letra) {
+        String codigo = codigoDe(letra);
+        if (MetricasMorse.ATIVO) {
+            MetricasMorse.registrarBusca(codigo != null);
         }
+        return codigo;
+    }
+    
+    /**
+     * Mesma consulta de buscarLetra, sem contar nas métricas de busca
+     * (consultas internas: alterações da árvore, dobra de acentos, montagem de tabelas)
+     */
+    String codigoDe(char letra) {
+        letra = DobraCaracteres.maiuscula(letra);
         
-        // Busca na direita (traço)
-        return buscarLetraRecursivo(atual.getDireita(), letra, caminhoAtual + "-");
+        // Consulta direta ao índice reverso (qualquer letra do plano básico)
+        String[] pagina = indiceCodigos[letra >>> 8];
+        return pagina != null ? pagina[letra & 0xFF] : null;
+    }
+    
+    /**
+     * Atualiza o índice reverso de uma letra
+     * @param letra Letra (já em maiúscula)
+     * @param codigo Código Morse compartilhado, ou null para remover a entrada
+     */
+    private void indexarCodigo(char letra, String codigo) {
+        String[] pagina = indiceCodigos[letra >>> 8];
+        if (pagina == null) {
+            if (codigo == null) {
+                return;
+            }
+            pagina = new String[256];
+            indiceCodigos[letra >>> 8] = pagina;
+        }
+        pagina[letra & 0xFF] = codigo;
     }
     
     /**
@@ -175,38 +313,61 @@ public class ArvoreMorse {
      * @return Código Morse separado por espaços, ou mensagem de erro
      */
     public String codificarPalavra(String palavra) {
-        palavra = palavra.toUpperCase();
+        return codificar(palavra, null);
+    }
+    
+    /**
+     * Codifica uma palavra com uma das tabelas registradas, sem alterar a árvore
+     * @param nomeTabela Nome da tabela (ver registrarTabela)
+     * @return Código Morse separado por espaços, ou mensagem de erro
+     * @throws IllegalArgumentException se a tabela não estiver registrada
+     */
+    public String codificarPalavra(String palavra, String nomeTabela) {
+        return codificar(palavra, obterTabela(nomeTabela));
+    }
+    
+    /**
+     * @param tabela Tabela usada no lugar da árvore (null = árvore)
+     */
+    private String codificar(String palavra, TabelaCodigos tabela) {
+        EventoMorse evento = null;
+        long inicio = 0;
+        if (MetricasMorse.ATIVO) {
+            evento = MetricasMorse.iniciar("codificar");
+            inicio = System.nanoTime();
+        }
+        
         StringBuilder resultado = new StringBuilder();
         StringBuilder letrasNaoEncontradas = new StringBuilder();
+        int[] quantidadeNaoEncontradas = new int[1];
         
-        for (int i = 0; i < palavra.length(); i++) {
-            char letra = palavra.charAt(i);
-            
-            if (letra == ' ') {
-                resultado.append(" / "); // Separador de palavras em Morse
-                continue;
+        CodificadorStream codificador = new CodificadorStream(this, tabela, (letra, posicao) -> {
+            if (letrasNaoEncontradas.length() > 0) {
+                letrasNaoEncontradas.append(", ");
             }
-            
-            String codigoMorse = buscarLetra(letra);
-            
-            if (codigoMorse == null) {
-                if (letrasNaoEncontradas.length() > 0) {
-                    letrasNaoEncontradas.append(", ");
-                }
-                letrasNaoEncontradas.append(letra);
-            } else {
-                if (resultado.length() > 0 && resultado.charAt(resultado.length() - 1) != ' ') {
-                    resultado.append(" ");
-                }
-                resultado.append(codigoMorse);
+            letrasNaoEncontradas.append(letra);
+            quantidadeNaoEncontradas[0]++;
+            if (MetricasMorse.ATIVO) {
+                MetricasMorse.registrarLetraDesconhecida();
             }
+        });
+        
+        try {
+            codificador.codificarMensagem(palavra, resultado);
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new UncheckedIOException(e);
+        }
+        
+        if (evento != null) {
+            MetricasMorse.concluir(evento, inicio, true, palavra.length(), resultado.length(), quantidadeNaoEncontradas[0]);
         }
         
         if (letrasNaoEncontradas.length() > 0) {
-            return "ERRO: As seguintes letras não estão na árvore: " + letrasNaoEncontradas.toString();
+            return mensagemLetrasNaoEncontradas(letrasNaoEncontradas);
         }
         
-        return resultado.toString().trim();
+        return resultado.toString();
     }
     
     /**
@@ -215,40 +376,125 @@ public class ArvoreMorse {
      * @return Texto decodificado ou mensagem de erro
      */
     public String decodificarPalavra(String codigoMorse) {
-        String[] codigos = dividirString(codigoMorse, " ");
+        return decodificar(codigoMorse, compilar());
+    }
+    
+    /**
+     * Decodifica um código Morse com uma das tabelas registradas, sem alterar a árvore
+     * @param nomeTabela Nome da tabela (ver registrarTabela)
+     * @return Texto decodificado ou mensagem de erro
+     * @throws IllegalArgumentException se a tabela não estiver registrada
+     */
+    public String decodificarPalavra(String codigoMorse, String nomeTabela) {
+        return decodificar(codigoMorse, obterTabela(nomeTabela));
+    }
+    
+    /**
+     * @param tabela Tabela de decodificação (null = percorre os nós da árvore)
+     */
+    private String decodificar(String codigoMorse, TabelaDecodificacao tabela) {
+        EventoMorse evento = null;
+        long inicio = 0;
+        if (MetricasMorse.ATIVO) {
+            evento = MetricasMorse.iniciar("decodificar");
+            inicio = System.nanoTime();
+        }
+        
         StringBuilder resultado = new StringBuilder();
         StringBuilder codigosNaoEncontrados = new StringBuilder();
         
-        for (int i = 0; i < codigos.length; i++) {
-            String codigo = codigos[i].trim();
+        int desconhecidos = decodificarTrecho(codigoMorse, 0, codigoMorse.length(), tabela, resultado, codigosNaoEncontrados);
+        
+        if (evento != null) {
+            MetricasMorse.concluir(evento, inicio, false, codigoMorse.length(), resultado.length(), desconhecidos);
+        }
+        
+        if (codigosNaoEncontrados.length() > 0) {
+            return mensagemCodigosNaoEncontrados(codigosNaoEncontrados);
+        }
+        
+        return resultado.toString();
+    }
+    
+    /**
+     * Decodifica os códigos de codigoMorse[inicio, fim), separados por espaço.
+     * Os códigos são delimitados por índices, sem dividir a string em substrings.
+     * @param resultado Recebe o texto decodificado
+     * @param codigosNaoEncontrados Recebe os códigos desconhecidos, separados por ", "
+     * @return Quantidade de códigos desconhecidos
+     */
+    int decodificarTrecho(String codigoMorse, int inicio, int fim,
+                          StringBuilder resultado, StringBuilder codigosNaoEncontrados) {
+        return decodificarTrecho(codigoMorse, inicio, fim, compilar(), resultado, codigosNaoEncontrados);
+    }
+    
+    private int decodificarTrecho(String codigoMorse, int inicio, int fim, TabelaDecodificacao compilada,
+                                  StringBuilder resultado, StringBuilder codigosNaoEncontrados) {
+        int posicao = inicio;
+        int desconhecidos = 0;
+        
+        while (posicao <= fim) {
+            int separador = codigoMorse.indexOf(' ', posicao);
+            if (separador == -1 || separador > fim) {
+                separador = fim;
+            }
             
-            if (codigo.isEmpty()) {
+            // Equivalente ao trim() de cada código
+            int inicioCodigo = posicao;
+            int fimCodigo = separador;
+            while (inicioCodigo < fimCodigo && codigoMorse.charAt(inicioCodigo) <= ' ') {
+                inicioCodigo++;
+            }
+            while (fimCodigo > inicioCodigo && codigoMorse.charAt(fimCodigo - 1) <= ' ') {
+                fimCodigo--;
+            }
+            posicao = separador + 1;
+            
+            if (inicioCodigo == fimCodigo) {
                 continue;
             }
             
             // Separador de palavras
-            if (codigo.equals("/")) {
+            if (fimCodigo - inicioCodigo == 1 && codigoMorse.charAt(inicioCodigo) == '/') {
                 resultado.append(" ");
                 continue;
             }
             
-            char letra = decodificarCodigoRecursivo(raiz, codigo, 0);
+            char letra;
+            if (compilada != null) {
+                letra = compilada.decodificarCodigo(codigoMorse, inicioCodigo, fimCodigo);
+            } else {
+                // Árvore profunda demais para o heap: percorre os nós
+                letra = decodificarCodigoRecursivo(raiz, codigoMorse.substring(inicioCodigo, fimCodigo), 0);
+            }
+            
+            if (MetricasMorse.ATIVO) {
+                MetricasMorse.registrarCodigo(letra != '\0');
+            }
             
             if (letra == '\0') {
                 if (codigosNaoEncontrados.length() > 0) {
                     codigosNaoEncontrados.append(", ");
                 }
-                codigosNaoEncontrados.append(codigo);
+                codigosNaoEncontrados.append(codigoMorse, inicioCodigo, fimCodigo);
+                desconhecidos++;
             } else {
                 resultado.append(letra);
+                if (contadorVisitas != null) {
+                    contadorVisitas.registrarCodigo(codigoMorse, inicioCodigo, fimCodigo);
+                }
             }
         }
         
-        if (codigosNaoEncontrados.length() > 0) {
-            return "ERRO: Os seguintes códigos não estão na árvore: " + codigosNaoEncontrados.toString();
-        }
-        
-        return resultado.toString();
+        return desconhecidos;
+    }
+    
+    static String mensagemLetrasNaoEncontradas(CharSequence letras) {
+        return "ERRO: As seguintes letras não estão na árvore: " + letras;
+    }
+    
+    static String mensagemCodigosNaoEncontrados(CharSequence codigos) {
+        return "ERRO: Os seguintes códigos não estão na árvore: " + codigos;
     }
     
     private char decodificarCodigoRecursivo(No atual, String codigo, int indice) {
@@ -276,30 +522,341 @@ public class ArvoreMorse {
     }
     
     /**
-     * Divide uma string por um separador (substitui split do java.util)
+     * Codifica um texto no formato binário compacto:
+     * 4 bytes (big-endian) com a quantidade de símbolos, seguidos de cada símbolo
+     * como 3 bits de comprimento e o código em bits (ponto = 0, traço = 1).
+     * Comprimento 0 indica separador de palavras.
+     * @param texto Texto a codificar
+     * @param ouvinte Recebe as letras sem código (ou com código longo demais); pode ser null
+     * @return Bytes do formato binário
      */
-    private String[] dividirString(String texto, String separador) {
-        // Conta quantos separadores existem
-        int count = 1;
-        int pos = 0;
-        while ((pos = texto.indexOf(separador, pos)) != -1) {
-            count++;
-            pos += separador.length();
+    public byte[] codificarBinario(String texto, OuvinteLetraDesconhecida ouvinte) {
+        // Pior caso: 3 + COMPRIMENTO_MAXIMO_BINARIO bits por caractere
+        byte[] saida = new byte[4 + (texto.length() * (3 + COMPRIMENTO_MAXIMO_BINARIO) + 7) / 8];
+        int byteAtual = 4;
+        long acumulador = 0;
+        int bitsAcumulados = 0;
+        int simbolos = 0;
+        
+        for (int i = 0; i < texto.length(); i++) {
+            char letra = texto.charAt(i);
+            int comprimento = 0;
+            int bits = 0;
+            
+            if (letra != ' ' && letra != '\n' && letra != '\r') {
+                letra = DobraCaracteres.maiuscula(letra);
+                String codigo = buscarLetra(letra);
+                if (codigo == null && DobraCaracteres.base(letra) != '\0') {
+                    // Letra acentuada sem código próprio: usa a letra base
+                    codigo = codigoDe(DobraCaracteres.base(letra));
+                }
+                
+                if (codigo == null || codigo.length() > COMPRIMENTO_MAXIMO_BINARIO) {
+                    if (ouvinte != null) {
+                        ouvinte.letraDesconhecida(letra, i);
+                    }
+                    continue;
+                }
+                
+                comprimento = codigo.length();
+                for (int j = 0; j < comprimento; j++) {
+                    bits = (bits << 1) | (codigo.charAt(j) == '-' ? 1 : 0);
+                }
+            }
+            
+            acumulador = (acumulador << (3 + comprimento)) | ((long) comprimento << comprimento) | bits;
+            bitsAcumulados += 3 + comprimento;
+            simbolos++;
+            
+            while (bitsAcumulados >= 8) {
+                bitsAcumulados -= 8;
+                saida[byteAtual++] = (byte) (acumulador >>> bitsAcumulados);
+            }
+        }
+        
+        if (bitsAcumulados > 0) {
+            saida[byteAtual++] = (byte) (acumulador << (8 - bitsAcumulados));
+        }
+        
+        saida[0] = (byte) (simbolos >>> 24);
+        saida[1] = (byte) (simbolos >>> 16);
+        saida[2] = (byte) (simbolos >>> 8);
+        saida[3] = (byte) simbolos;
+        return Arrays.copyOf(saida, byteAtual);
+    }
+    
+    /**
+     * Decodifica o formato binário compacto gerado por codificarBinario,
+     * consultando a árvore compilada diretamente a partir dos bits
+     * @param dados Bytes do formato binário
+     * @return Texto decodificado (códigos desconhecidos viram '?')
+     */
+    public String decodificarBinario(byte[] dados) {
+        if (dados.length < 4) {
+            throw new IllegalArgumentException("Dados binários sem cabeçalho");
+        }
+        
+        int simbolos = ((dados[0] & 0xFF) << 24) | ((dados[1] & 0xFF) << 16)
+                | ((dados[2] & 0xFF) << 8) | (dados[3] & 0xFF);
+        long totalBits = (long) dados.length * 8;
+        // O cabeçalho não é confiável: cada símbolo ocupa pelo menos 3 bits
+        if (simbolos < 0) {
+            throw new IllegalArgumentException("Quantidade de símbolos inválida no cabeçalho");
+        }
+        if (simbolos > (totalBits - 32) / 3) {
+            throw new IllegalArgumentException("Dados binários truncados");
+        }
+        
+        ArvoreCompilada compilada = compilar();
+        StringBuilder resultado = new StringBuilder(simbolos);
+        long posicaoBit = 32;
+        
+        for (int s = 0; s < simbolos; s++) {
+            if (posicaoBit + 3 > totalBits) {
+                throw new IllegalArgumentException("Dados binários truncados");
+            }
+            int comprimento = lerBits(dados, posicaoBit, 3);
+            posicaoBit += 3;
+            
+            if (comprimento == 0) {
+                resultado.append(' ');
+                continue;
+            }
+            
+            if (posicaoBit + comprimento > totalBits) {
+                throw new IllegalArgumentException("Dados binários truncados");
+            }
+            int bits = lerBits(dados, posicaoBit, comprimento);
+            posicaoBit += comprimento;
+            
+            char letra = compilada != null ? compilada.decodificarSimbolo(comprimento, bits)
+                    : decodificarBitsPorNos(comprimento, bits);
+            resultado.append(letra != '\0' ? letra : DecodificadorStream.CARACTERE_DESCONHECIDO);
+            if (letra != '\0' && contadorVisitas != null) {
+                contadorVisitas.registrarPosicao((1 << comprimento) - 1 + bits);
+            }
         }
         
-        String[] resultado = new String[count];
-        int inicio = 0;
-        int indice = 0;
+        return resultado.toString();
+    }
+    
+    /**
+     * Decodifica um código em bits (1 = traço) descendo pelos nós, para árvores
+     * profundas demais para a forma compilada
+     * @return Letra ou '\0' se o código não existir
+     */
+    private char decodificarBitsPorNos(int comprimento, int bits) {
+        No atual = raiz;
+        for (int i = comprimento - 1; i >= 0 && atual != null; i--) {
+            atual = ((bits >>> i) & 1) == 0 ? atual.getEsquerda() : atual.getDireita();
+        }
+        return atual == null || atual.isVazio() ? '\0' : atual.getLetra();
+    }
+    
+    /**
+     * Lê até 8 bits a partir de posicaoBit (o primeiro bit é o mais significativo)
+     */
+    private static int lerBits(byte[] dados, long posicaoBit, int quantidade) {
+        int indice = (int) (posicaoBit >>> 3);
+        // Junta dois bytes para cobrir leituras que atravessam a fronteira
+        int janela = (dados[indice] & 0xFF) << 8;
+        if (indice + 1 < dados.length) {
+            janela |= dados[indice + 1] & 0xFF;
+        }
+        int deslocamento = 16 - (int) (posicaoBit & 7) - quantidade;
+        return (janela >>> deslocamento) & ((1 << quantidade) - 1);
+    }
+    
+    /**
+     * Registra uma tabela de códigos para uso por nome em codificarPalavra/decodificarPalavra.
+     * A tabela já vem compilada: trocar de tabela não reconstrói a árvore.
+     * Substitui uma tabela registrada com o mesmo nome.
+     */
+    public void registrarTabela(TabelaCodigos tabela) {
+        tabelas.put(tabela.getNome(), tabela);
+    }
+    
+    /**
+     * @return Tabela registrada com o nome, ou null se não houver
+     */
+    public TabelaCodigos getTabela(String nome) {
+        return tabelas.get(nome);
+    }
+    
+    private TabelaCodigos obterTabela(String nome) {
+        TabelaCodigos tabela = tabelas.get(nome);
+        if (tabela == null) {
+            throw new IllegalArgumentException("Tabela de códigos não registrada: " + nome);
+        }
+        return tabela;
+    }
+    
+    /**
+     * Adiciona na árvore as letras de uma tabela (as que compartilham código com
+     * uma letra anterior da tabela só existem na própria tabela)
+     * @return Quantidade de letras adicionadas
+     */
+    public int carregarTabela(TabelaCodigos tabela) {
+        int adicionadas = 0;
+        for (int posicao = 1; posicao < tabela.getQuantidadePosicoes(); posicao++) {
+            char letra = tabela.getLetraNaPosicao(posicao);
+            if (letra != '\0' && adicionarCodigo(letra, ArvoreMapeada.codigoDaPosicao(posicao))) {
+                adicionadas++;
+            }
+        }
+        return adicionadas;
+    }
+    
+    /**
+     * Compila a árvore para a forma de heap implícito usada na decodificação.
+     * A forma compilada é reaproveitada até a próxima alteração da árvore.
+     * @return Árvore compilada, ou null se a árvore for profunda demais (também guardado até a
+     *         próxima alteração, então versões publicadas não são escritas pelos leitores)
+     */
+    public ArvoreCompilada compilar() {
+        if (arvoreCompilada == null && !profundaDemais) {
+            arvoreCompilada = ArvoreCompilada.compilar(raiz);
+            profundaDemais = arvoreCompilada == null;
+        }
+        return arvoreCompilada;
+    }
+    
+    /**
+     * Ativa o cache de palavras codificadas (substitui um cache anterior)
+     * @param capacidade Quantidade máxima de palavras guardadas
+     */
+    public void ativarCacheCodificacao(int capacidade) {
+        cacheCodificacao = new CacheCodificacao(capacidade);
+    }
+    
+    public void desativarCacheCodificacao() {
+        cacheCodificacao = null;
+    }
+    
+    /**
+     * @return Cache de palavras codificadas, ou null se desativado
+     */
+    public CacheCodificacao getCacheCodificacao() {
+        return cacheCodificacao;
+    }
+    
+    /**
+     * Passa a contar o uso de cada nó na codificação e decodificação (mapa de calor).
+     * Conta códigos até a profundidade atual da árvore, com no mínimo 8 níveis.
+     */
+    public void ativarContadorVisitas() {
+        if (contadorVisitas == null) {
+            int profundidade = Math.max(calcularProfundidade(), 8);
+            contadorVisitas = new ContadorVisitas(Math.min(profundidade, ArvoreCompilada.PROFUNDIDADE_MAXIMA));
+        }
+    }
+    
+    public void desativarContadorVisitas() {
+        contadorVisitas = null;
+    }
+    
+    /**
+     * @return Contador de visitas, ou null se desativado
+     */
+    public ContadorVisitas getContadorVisitas() {
+        return contadorVisitas;
+    }
+    
+    /**
+     * Descarta as estruturas derivadas dos nós após uma alteração da árvore
+     */
+    private void invalidarDerivados() {
+        versao++;
+        arvoreCompilada = null;
+        profundaDemais = false;
+        if (cacheCodificacao != null) {
+            cacheCodificacao.limpar();
+        }
+    }
+    
+    /**
+     * Cria uma cópia independente da árvore (nós e índice reverso)
+     * @return Nova árvore com o mesmo conteúdo
+     */
+    public ArvoreMorse copiar() {
+        ArvoreMorse copia = new ArvoreMorse();
+        copia.raiz = copiarRecursivo(raiz);
+        for (int i = 0; i < PAGINAS_INDICE; i++) {
+            if (indiceCodigos[i] != null) {
+                copia.indiceCodigos[i] = indiceCodigos[i].clone();
+            }
+        }
+        copia.versao = versao;
+        copia.contadorVisitas = contadorVisitas; // Compartilhado: as posições não mudam
+        copia.tabelas = new HashMap<>(tabelas);   // Tabelas são imutáveis
+        if (cacheCodificacao != null) {
+            // A cópia costuma ser alterada em seguida: começa com um cache vazio
+            copia.cacheCodificacao = new CacheCodificacao(cacheCodificacao.getCapacidade());
+        }
+        return copia;
+    }
+    
+    private No copiarRecursivo(No atual) {
+        if (atual == null) {
+            return null;
+        }
         
-        pos = texto.indexOf(separador);
-        while (pos != -1) {
-            resultado[indice++] = texto.substring(inicio, pos);
-            inicio = pos + separador.length();
-            pos = texto.indexOf(separador, inicio);
+        No copia = new No();
+        if (!atual.isVazio()) {
+            copia.setLetra(atual.getLetra());
+        } else if (atual.isRemovida()) {
+            copia.setVazio(true);
+        }
+        copia.setEsquerda(copiarRecursivo(atual.getEsquerda()));
+        copia.setDireita(copiarRecursivo(atual.getDireita()));
+        return copia;
+    }
+    
+    /**
+     * Retorna a versão da árvore (muda a cada alteração; cópias mantêm a versão do original)
+     */
+    public long getVersao() {
+        return versao;
+    }
+    
+    /**
+     * Conta todos os nós da árvore, incluindo a raiz e os nós vazios
+     */
+    public int contarNos() {
+        return contarNosRecursivo(raiz, false);
+    }
+    
+    /**
+     * Conta os nós de letras removidas que continuam na árvore por levarem a outras
+     * letras (os caminhos intermediários, que nunca tiveram letra, não entram)
+     */
+    public int contarNosRemovidos() {
+        return contarNosRecursivo(raiz, true);
+    }
+    
+    private int contarNosRecursivo(No atual, boolean somenteRemovidos) {
+        if (atual == null) {
+            return 0;
         }
         
-        resultado[indice] = texto.substring(inicio);
-        return resultado;
+        int proprio = !somenteRemovidos || atual.isRemovida() ? 1 : 0;
+        return proprio + contarNosRecursivo(atual.getEsquerda(), somenteRemovidos)
+                + contarNosRecursivo(atual.getDireita(), somenteRemovidos);
+    }
+    
+    /**
+     * Calcula a profundidade da árvore (comprimento do maior código; 0 se só houver a raiz)
+     */
+    public int calcularProfundidade() {
+        return raiz == null ? 0 : calcularProfundidadeRecursivo(raiz) - 1;
+    }
+    
+    private int calcularProfundidadeRecursivo(No atual) {
+        if (atual == null) {
+            return 0;
+        }
+        return 1 + Math.max(calcularProfundidadeRecursivo(atual.getEsquerda()),
+                calcularProfundidadeRecursivo(atual.getDireita()));
     }
     
     /**
@@ -314,5 +871,7 @@ public class ArvoreMorse {
      */
     public void limparArvore() {
         this.raiz = null;
+        Arrays.fill(indiceCodigos, null);
+        invalidarDerivados();
     }
 }
@@ -0,0 +1,138 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Árvore Morse segura para uso por várias threads
+ * Leitores usam a versão publicada mais recente, sem bloqueio. Escritores copiam
+ * essa versão, aplicam a alteração na cópia e publicam a nova versão atomicamente
+ * (copy-on-write). Uma versão publicada nunca é alterada depois.
+ */
+public class ArvoreMorseConcorrente {
+    private final AtomicReference<ArvoreMorse> atual;
+    private final Object travaEscrita = new Object();
+
+    public ArvoreMorseConcorrente() {
+        this(new ArvoreMorse());
+    }
+
+    /**
+     * @param inicial Árvore com o conteúdo inicial (é copiada; alterações posteriores nela não afetam esta)
+     */
+    public ArvoreMorseConcorrente(ArvoreMorse inicial) {
+        ArvoreMorse copia = inicial.copiar();
+        copia.compilar();
+        this.atual = new AtomicReference<>(copia);
+    }
+
+    /**
+     * Retorna a versão publicada atual. Ela é imutável por contrato:
+     * não chame métodos que alteram a árvore no objeto retornado.
+     */
+    public ArvoreMorse getVersaoAtual() {
+        return atual.get();
+    }
+
+    public String adicionarLetra(char letra) {
+        synchronized (travaEscrita) {
+            ArvoreMorse nova = atual.get().copiar();
+            String codigo = nova.adicionarLetra(letra);
+            if (codigo != null) {
+                publicar(nova);
+            }
+            return codigo;
+        }
+    }
+
+    public boolean removerLetra(char letra) {
+        synchronized (travaEscrita) {
+            ArvoreMorse nova = atual.get().copiar();
+            boolean removeu = nova.removerLetra(letra);
+            if (removeu) {
+                publicar(nova);
+            }
+            return removeu;
+        }
+    }
+
+    public void limparArvore() {
+        synchronized (travaEscrita) {
+            // Parte de uma cópia para manter as configurações da árvore (cache)
+            ArvoreMorse nova = atual.get().copiar();
+            nova.limparArvore();
+            publicar(nova);
+        }
+    }
+
+    /**
+     * @return Quantidade de nós liberados
+     */
+    public int compactar() {
+        synchronized (travaEscrita) {
+            ArvoreMorse nova = atual.get().copiar();
+            int liberados = nova.compactar();
+            if (liberados > 0) {
+                publicar(nova);
+            }
+            return liberados;
+        }
+    }
+
+    public void registrarTabela(TabelaCodigos tabela) {
+        synchronized (travaEscrita) {
+            ArvoreMorse nova = atual.get().copiar();
+            nova.registrarTabela(tabela);
+            publicar(nova);
+        }
+    }
+
+    /**
+     * @return Quantidade de letras adicionadas
+     */
+    public int carregarTabela(TabelaCodigos tabela) {
+        synchronized (travaEscrita) {
+            ArvoreMorse nova = atual.get().copiar();
+            int adicionadas = nova.carregarTabela(tabela);
+            if (adicionadas > 0) {
+                publicar(nova);
+            }
+            return adicionadas;
+        }
+    }
+
+    public String buscarLetra(char letra) {
+        return atual.get().buscarLetra(letra);
+    }
+
+    public String codificarPalavra(String palavra) {
+        return atual.get().codificarPalavra(palavra);
+    }
+
+    public String decodificarPalavra(String codigoMorse) {
+        return atual.get().decodificarPalavra(codigoMorse);
+    }
+
+    public String codificarPalavra(String palavra, String nomeTabela) {
+        return atual.get().codificarPalavra(palavra, nomeTabela);
+    }
+
+    public String decodificarPalavra(String codigoMorse, String nomeTabela) {
+        return atual.get().decodificarPalavra(codigoMorse, nomeTabela);
+    }
+
+    public byte[] codificarBinario(String texto, OuvinteLetraDesconhecida ouvinte) {
+        return atual.get().codificarBinario(texto, ouvinte);
+    }
+
+    public String decodificarBinario(byte[] dados) {
+        return atual.get().decodificarBinario(dados);
+    }
+
+    public No getRaiz() {
+        return atual.get().getRaiz();
+    }
+
+    private void publicar(ArvoreMorse nova) {
+        // Compila antes de publicar para que os leitores não escrevam na versão publicada
+        nova.compilar();
+        atual.set(nova);
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cache LRU aproximado de palavras inteiras já codificadas (palavra em maiúsculas ->
+ * códigos separados por espaço)
+ *
+ * Só guarda palavras em que todas as letras estão na árvore. As consultas não usam
+ * trava: o mapa é um ConcurrentHashMap e um acerto só marca a entrada como usada.
+ * Quando a capacidade é ultrapassada, quem conseguir a trava de descarte percorre o
+ * mapa como um relógio (segunda chance): entradas marcadas perdem a marca, entradas
+ * sem marca são descartadas. As contagens de acertos e falhas usam LongAdder.
+ */
+public class CacheCodificacao {
+    private final int capacidade;
+    private final ConcurrentHashMap<String, Entrada> palavras = new ConcurrentHashMap<>();
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+
+    // Ponteiro do relógio, usado só por quem tem a trava de descarte
+    private final ReentrantLock descarte = new ReentrantLock();
+    private Iterator<Map.Entry<String, Entrada>> ponteiro;
+
+    /**
+     * @param capacidade Quantidade máxima de palavras guardadas
+     */
+    public CacheCodificacao(int capacidade) {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("A capacidade do cache deve ser positiva");
+        }
+        this.capacidade = capacidade;
+    }
+
+    /**
+     * @return Códigos da palavra, ou null se ela não estiver no cache
+     */
+    public String buscar(String palavra) {
+        Entrada entrada = palavras.get(palavra);
+        if (entrada != null) {
+            if (!entrada.usada) {
+                entrada.usada = true;  // Só escreve se mudar, para não disputar a linha de cache
+            }
+            acertos.increment();
+            return entrada.codigos;
+        }
+        falhas.increment();
+        return null;
+    }
+
+    public void guardar(String palavra, String codigos) {
+        palavras.put(palavra, new Entrada(codigos));
+        if (palavras.size() > capacidade && descarte.tryLock()) {
+            try {
+                descartar();
+            } finally {
+                descarte.unlock();
+            }
+        }
+    }
+
+    /**
+     * Avança o relógio até o mapa voltar à capacidade. Depois de uma volta inteira
+     * sem sucesso (todas as entradas reusadas nesse meio tempo), descarta mesmo as marcadas.
+     */
+    private void descartar() {
+        int segundasChances = palavras.size();
+        while (palavras.size() > capacidade) {
+            if (ponteiro == null || !ponteiro.hasNext()) {
+                ponteiro = palavras.entrySet().iterator();
+                if (!ponteiro.hasNext()) {
+                    return;
+                }
+            }
+            Map.Entry<String, Entrada> atual = ponteiro.next();
+            Entrada entrada = atual.getValue();
+            if (entrada.usada && segundasChances-- > 0) {
+                entrada.usada = false;
+            } else {
+                palavras.remove(atual.getKey(), entrada);
+            }
+        }
+    }
+
+    /**
+     * Descarta todas as palavras (chamado quando a árvore muda).
+     * As estatísticas de acerto são mantidas.
+     */
+    public void limpar() {
+        palavras.clear();
+    }
+
+    public int getCapacidade() {
+        return capacidade;
+    }
+
+    public int getTamanho() {
+        return palavras.size();
+    }
+
+    public long getAcertos() {
+        return acertos.sum();
+    }
+
+    public long getFalhas() {
+        return falhas.sum();
+    }
+
+    /**
+     * @return Fração das consultas atendidas pelo cache (0 se ainda não houve consultas)
+     */
+    public double getTaxaAcerto() {
+        long acertos = getAcertos();
+        long total = acertos + getFalhas();
+        return total == 0 ? 0 : (double) acertos / total;
+    }
+
+    @Override
+    public String toString() {
+        long acertos = getAcertos();
+        long falhas = getFalhas();
+        long total = acertos + falhas;
+        return String.format("%d/%d palavras, %d acertos, %d falhas (%.1f%%)",
+                getTamanho(), capacidade, acertos, falhas, total == 0 ? 0.0 : 100.0 * acertos / total);
+    }
+
+    /**
+     * Códigos da palavra e a marca de uso do relógio
+     */
+    private static final class Entrada {
+        final String codigos;
+        volatile boolean usada;
+
+        Entrada(String codigos) {
+            this.codigos = codigos;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Codificador Morse direto entre ByteBuffers ASCII (heap ou diretos)
+ *
+ * Uma tabela com uma entrada por byte, montada no construtor, guarda os bytes do
+ * código de cada letra já com a conversão de minúsculas para maiúsculas. O laço
+ * principal só consulta a tabela e copia bytes: não há String, char nem objetos
+ * intermediários.
+ *
+ * Funciona como um CharsetEncoder: consome o que puder da entrada e avança as
+ * posições dos dois buffers. Retorna OVERFLOW quando a saída não tem espaço para o
+ * próximo código (a saída deve ter pelo menos getTamanhoMinimoSaida() bytes livres)
+ * e UNDERFLOW quando a entrada acaba. O estado de separadores é mantido entre
+ * chamadas, então a mensagem pode chegar em vários pedaços.
+ *
+ * Para texto ASCII a saída é idêntica à de CodificadorStream. Bytes fora do ASCII
+ * não têm código (nem pela tabela da árvore nem pela dobra de acentos): cada
+ * caractere UTF-8 é informado uma vez ao ouvinte, como U+FFFD. Texto com outros
+ * caracteres deve passar por CodificadorStream.
+ *
+ * A tabela é uma foto da árvore no momento da construção: crie outro codificador
+ * depois de alterar a árvore.
+ */
+public class CodificadorBytes {
+    private static final byte ESPACO = ' ';
+    private static final byte BARRA = '/';
+
+    private final ArvoreMorse arvore;
+    private final OuvinteLetraDesconhecida ouvinte;
+    private final byte[][] codigos = new byte[256][];  // null = sem código
+    private final int[] posicoesHeap = new int[256];
+    private final int tamanhoMinimoSaida;
+
+    // Estado entre pedaços da entrada (mesmo significado que em CodificadorStream)
+    private boolean escreveuAlgo;
+    private boolean espacoPendente;
+    private long posicao;
+    private long letrasNaoEncontradas;
+
+    /**
+     * @param arvore Árvore usada para montar a tabela
+     * @param ouvinte Recebe as letras desconhecidas (pode ser null para ignorá-las)
+     */
+    public CodificadorBytes(ArvoreMorse arvore, OuvinteLetraDesconhecida ouvinte) {
+        this.arvore = arvore;
+        this.ouvinte = ouvinte;
+
+        int maiorCodigo = 0;
+        for (int b = 0; b < 128; b++) {
+            if (b == ' ' || b == '\n' || b == '\r') {
+                continue;
+            }
+            String codigo = arvore.codigoDe((char) b);
+            if (codigo != null) {
+                codigos[b] = codigo.getBytes(StandardCharsets.US_ASCII);
+                posicoesHeap[b] = calcularPosicaoHeap(codigo);
+                maiorCodigo = Math.max(maiorCodigo, codigo.length());
+            }
+        }
+
+        // Separador de palavras com espaço pendente: "  /" (3 bytes)
+        this.tamanhoMinimoSaida = Math.max(maiorCodigo + 1, 3);
+    }
+
+    private static int calcularPosicaoHeap(String codigo) {
+        if (codigo.length() > ArvoreCompilada.PROFUNDIDADE_MAXIMA) {
+            return -1;
+        }
+        int posicao = 0;
+        for (int i = 0; i < codigo.length(); i++) {
+            posicao = 2 * posicao + (codigo.charAt(i) == '.' ? 1 : 2);
+        }
+        return posicao;
+    }
+
+    /**
+     * Codifica o máximo possível de entrada para saida
+     * @return UNDERFLOW se toda a entrada foi consumida, OVERFLOW se faltou espaço na saída
+     */
+    public CoderResult codificar(ByteBuffer entrada, ByteBuffer saida) {
+        int i = entrada.position();
+        int limiteEntrada = entrada.limit();
+        int j = saida.position();
+        int limiteSaida = saida.limit();
+        ContadorVisitas contador = arvore.getContadorVisitas();
+        byte[][] codigos = this.codigos;
+
+        // Estado em variáveis locais durante o laço, devolvido aos campos no finally
+        boolean escreveuAlgo = this.escreveuAlgo;
+        boolean espacoPendente = this.espacoPendente;
+        int inicio = i;
+
+        try {
+            for (; i < limiteEntrada; i++) {
+                int b = entrada.get(i) & 0xFF;
+                byte[] codigo = codigos[b];
+
+                if (codigo != null) {
+                    int separar = espacoPendente || escreveuAlgo ? 1 : 0;
+                    if (limiteSaida - j < codigo.length + separar) {
+                        return CoderResult.OVERFLOW;
+                    }
+                    if (separar != 0) {
+                        saida.put(j++, ESPACO);
+                    }
+                    for (byte simbolo : codigo) {
+                        saida.put(j++, simbolo);
+                    }
+                    escreveuAlgo = true;
+                    espacoPendente = false;
+                    if (contador != null) {
+                        contador.registrarPosicao(posicoesHeap[b]);
+                    }
+                } else if (b == ' ') {
+                    int necessario = (espacoPendente ? 1 : 0) + (escreveuAlgo ? 2 : 1);
+                    if (limiteSaida - j < necessario) {
+                        return CoderResult.OVERFLOW;
+                    }
+                    if (espacoPendente) {
+                        saida.put(j++, ESPACO);
+                    }
+                    if (escreveuAlgo) {
+                        saida.put(j++, ESPACO);
+                    }
+                    saida.put(j++, BARRA);
+                    escreveuAlgo = true;
+                    espacoPendente = true;
+                } else if (b == '\n' || b == '\r') {
+                    if (j == limiteSaida) {
+                        return CoderResult.OVERFLOW;
+                    }
+                    saida.put(j++, (byte) b);
+                    escreveuAlgo = false;
+                    espacoPendente = false;
+                } else if (b < 0x80 || b >= 0xC0) {
+                    // Letra ASCII sem código, ou primeiro byte de um caractere UTF-8
+                    letrasNaoEncontradas++;
+                    if (ouvinte != null) {
+                        ouvinte.letraDesconhecida(b < 0x80 ? DobraCaracteres.maiuscula((char) b) : '\uFFFD',
+                                posicao + (i - inicio));
+                    }
+                }
+            }
+            return CoderResult.UNDERFLOW;
+        } finally {
+            this.escreveuAlgo = escreveuAlgo;
+            this.espacoPendente = espacoPendente;
+            posicao += i - inicio;
+            entrada.position(i);
+            saida.position(j);
+        }
+    }
+
+    /**
+     * Descarta o estado de separadores e zera as contagens
+     */
+    public void reiniciar() {
+        escreveuAlgo = false;
+        espacoPendente = false;
+        posicao = 0;
+        letrasNaoEncontradas = 0;
+    }
+
+    /**
+     * Menor espaço livre na saída que garante o progresso da codificação
+     */
+    public int getTamanhoMinimoSaida() {
+        return tamanhoMinimoSaida;
+    }
+
+    /**
+     * Retorna quantas letras sem código foram encontradas desde o último reinício
+     */
+    public long getLetrasNaoEncontradas() {
+        return letrasNaoEncontradas;
+    }
+}
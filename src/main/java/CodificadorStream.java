@@ -0,0 +1,286 @@
+import java.io.IOException;
+
+/**
+ * Codificador Morse em fluxo (streaming)
+ * Escreve os códigos diretamente em um Appendable do chamador (StringBuilder,
+ * Writer, CharBuffer...), processando a entrada caractere a caractere e sem
+ * alocar objetos no caminho quente: os códigos escritos são as strings
+ * compartilhadas do índice da árvore.
+ *
+ * A saída é idêntica à de ArvoreMorse.codificarPalavra: códigos separados por
+ * espaço e " / " entre palavras. Quebras de linha são copiadas para a saída.
+ *
+ * Se a árvore tiver o cache de palavras ativado, palavras inteiras contidas no
+ * pedaço recebido são consultadas no cache (a saída não muda).
+ */
+public class CodificadorStream {
+    // Palavras mais longas não passam pelo cache de palavras
+    private static final int TAMANHO_MAXIMO_CACHE = 32;
+
+    private final ArvoreMorse arvore;
+    private final TabelaCodigos tabela;  // null = códigos da árvore
+    private final OuvinteLetraDesconhecida ouvinte;
+
+    // Estado entre pedaços da entrada
+    private boolean escreveuAlgo;    // Já há algo escrito na linha atual
+    private boolean espacoPendente;  // Espaço após "/" ainda não escrito (descartado no fim da linha)
+    private long posicao;
+    private boolean dentroPalavra;   // Já foi processada alguma letra da palavra atual
+    private final StringBuilder chave = new StringBuilder();
+
+    /**
+     * @param arvore Árvore usada para obter os códigos
+     * @param ouvinte Recebe as letras desconhecidas (pode ser null para ignorá-las)
+     */
+    public CodificadorStream(ArvoreMorse arvore, OuvinteLetraDesconhecida ouvinte) {
+        this(arvore, null, ouvinte);
+    }
+
+    /**
+     * @param tabela Tabela usada no lugar dos códigos da árvore (null = árvore);
+     *               o cache de palavras da árvore só vale para os códigos dela
+     */
+    CodificadorStream(ArvoreMorse arvore, TabelaCodigos tabela, OuvinteLetraDesconhecida ouvinte) {
+        this.arvore = arvore;
+        this.tabela = tabela;
+        this.ouvinte = ouvinte;
+    }
+
+    /**
+     * Codifica um pedaço do texto. Pode ser chamado várias vezes para a mesma
+     * mensagem; o estado de separadores é mantido entre as chamadas.
+     */
+    public void codificar(CharSequence texto, Appendable destino) throws IOException {
+        codificar(texto, 0, texto.length(), destino);
+    }
+
+    /**
+     * Codifica o pedaço texto[inicio, fim) sem copiá-lo
+     */
+    public void codificar(CharSequence texto, int inicio, int fim, Appendable destino) throws IOException {
+        codificar(texto, inicio, fim, destino, false);
+    }
+
+    /**
+     * Codifica uma mensagem completa, como em codificarPalavra: o fim do texto também
+     * encerra a última palavra (que assim pode ser atendida pelo cache de palavras) e
+     * quebras de linha não são copiadas, e sim informadas como letras sem código
+     */
+    void codificarMensagem(CharSequence texto, Appendable destino) throws IOException {
+        codificar(texto, 0, texto.length(), destino, true);
+    }
+
+    /**
+     * Codifica o trecho [inicio, fim) de uma mensagem como codificarMensagem (usado pela
+     * codificação paralela; o trecho deve terminar no fim de uma palavra)
+     */
+    void codificarMensagem(CharSequence texto, int inicio, int fim, Appendable destino) throws IOException {
+        codificar(texto, inicio, fim, destino, true);
+    }
+
+    private void codificar(CharSequence texto, int inicio, int fim, Appendable destino, boolean mensagem)
+            throws IOException {
+        CacheCodificacao cache = tabela == null ? arvore.getCacheCodificacao() : null;
+
+        for (int i = inicio; i < fim; i++, posicao++) {
+            char letra = texto.charAt(i);
+
+            if (letra == ' ') {
+                escreverSeparadorPalavra(destino);
+                dentroPalavra = false;
+            } else if ((letra == '\n' || letra == '\r') && !mensagem) {
+                destino.append(letra);
+                escreveuAlgo = false;
+                espacoPendente = false;
+                dentroPalavra = false;
+            } else {
+                if (cache != null && !dentroPalavra) {
+                    int fimPalavra = procurarFimPalavra(texto, i, fim);
+                    if (fimPalavra > i && (fimPalavra < fim || mensagem)) {
+                        String codigos = codificarComCache(cache, texto, i, fimPalavra);
+                        if (codigos != null) {
+                            escreverCodigo(codigos, destino);
+                            posicao += fimPalavra - 1 - i;
+                            i = fimPalavra - 1;
+                            continue;
+                        }
+                    }
+                }
+                dentroPalavra = true;
+
+                letra = DobraCaracteres.maiuscula(letra);
+                String codigoMorse = buscarCodigo(letra);
+
+                if (codigoMorse != null) {
+                    escreverCodigo(codigoMorse, destino);
+                } else if (!escreverDobrada(letra, destino) && ouvinte != null) {
+                    ouvinte.letraDesconhecida(letra, posicao);
+                }
+            }
+        }
+    }
+
+    /**
+     * Descarta o estado de separadores e zera a contagem de posições
+     */
+    public void reiniciar() {
+        escreveuAlgo = false;
+        espacoPendente = false;
+        dentroPalavra = false;
+        posicao = 0;
+    }
+
+    /**
+     * Posiciona o codificador como se já tivesse escrito o código de uma letra
+     * (usado para continuar uma mensagem dividida em trechos independentes)
+     * @param posicao Posição do próximo caractere na mensagem original
+     */
+    void continuarAposCodigo(long posicao) {
+        this.escreveuAlgo = true;
+        this.espacoPendente = false;
+        this.dentroPalavra = false;
+        this.posicao = posicao;
+    }
+
+    private static int procurarFimPalavra(CharSequence texto, int inicio, int fim) {
+        int i = inicio;
+        while (i < fim) {
+            char c = texto.charAt(i);
+            if (c == ' ' || c == '\n' || c == '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Obtém os códigos da palavra texto[inicio, fim) do cache, codificando e guardando
+     * a palavra em caso de falha
+     * @return Códigos separados por espaço, ou null se a palavra for longa demais
+     *         ou tiver letras desconhecidas (que então são tratadas letra a letra)
+     *
+     * As letras da palavra contam como buscas nas métricas, com ou sem acerto no cache;
+     * a montagem usa a busca sem contagem para que nenhuma letra conte duas vezes.
+     */
+    private String codificarComCache(CacheCodificacao cache, CharSequence texto, int inicio, int fim) {
+        if (fim - inicio > TAMANHO_MAXIMO_CACHE) {
+            return null;
+        }
+
+        chave.setLength(0);
+        for (int i = inicio; i < fim; i++) {
+            chave.append(DobraCaracteres.maiuscula(texto.charAt(i)));
+        }
+        String palavra = chave.toString();
+
+        String codigos = cache.buscar(palavra);
+        if (codigos != null) {
+            if (MetricasMorse.ATIVO) {
+                MetricasMorse.registrarBuscas(palavra.length());
+            }
+            return codigos;
+        }
+
+        StringBuilder novos = new StringBuilder();
+        for (int i = 0; i < palavra.length(); i++) {
+            String codigoMorse = arvore.codigoDe(palavra.charAt(i));
+            if (codigoMorse == null) {
+                return null;
+            }
+            if (i > 0) {
+                novos.append(' ');
+            }
+            novos.append(codigoMorse);
+        }
+
+        codigos = novos.toString();
+        cache.guardar(palavra, codigos);
+        if (MetricasMorse.ATIVO) {
+            MetricasMorse.registrarBuscas(palavra.length());
+        }
+        return codigos;
+    }
+
+    private String buscarCodigo(char letra) {
+        return tabela == null ? arvore.buscarLetra(letra) : tabela.buscarCodigo(letra);
+    }
+
+    /**
+     * Como buscarCodigo, sem contar nas métricas (tentativas da dobra de acentos)
+     */
+    private String buscarCodigoDobrado(char letra) {
+        return tabela == null ? arvore.codigoDe(letra) : tabela.buscarCodigo(letra);
+    }
+
+    /**
+     * Codifica uma letra sem código próprio pela decomposição, se todas as partes
+     * tiverem código ("ガ" -> "カ" + dakuten no Wabun), ou pela letra base ("Ã" -> 'A')
+     * @return false se nenhuma das duas formas tiver código
+     */
+    private boolean escreverDobrada(char letra, Appendable destino) throws IOException {
+        String decomposicao = DobraCaracteres.decomposicao(letra);
+        if (decomposicao != null && todasComCodigo(decomposicao)) {
+            for (int i = 0; i < decomposicao.length(); i++) {
+                escreverCodigo(buscarCodigoDobrado(decomposicao.charAt(i)), destino);
+            }
+            return true;
+        }
+
+        char base = DobraCaracteres.base(letra);
+        String codigoMorse = base != '\0' ? buscarCodigoDobrado(base) : null;
+        if (codigoMorse == null) {
+            return false;
+        }
+        escreverCodigo(codigoMorse, destino);
+        return true;
+    }
+
+    private boolean todasComCodigo(String letras) {
+        for (int i = 0; i < letras.length(); i++) {
+            if (buscarCodigoDobrado(letras.charAt(i)) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica se a letra produz algum código na árvore, diretamente ou pela dobra
+     */
+    static boolean codificavel(ArvoreMorse arvore, char letra) {
+        letra = DobraCaracteres.maiuscula(letra);
+        if (arvore.codigoDe(letra) != null) {
+            return true;
+        }
+        String decomposicao = DobraCaracteres.decomposicao(letra);
+        if (decomposicao != null && decomposicao.chars().allMatch(c -> arvore.codigoDe((char) c) != null)) {
+            return true;
+        }
+        char base = DobraCaracteres.base(letra);
+        return base != '\0' && arvore.codigoDe(base) != null;
+    }
+
+    private void escreverSeparadorPalavra(Appendable destino) throws IOException {
+        if (espacoPendente) {
+            destino.append(' ');
+        }
+        destino.append(escreveuAlgo ? " /" : "/");
+        escreveuAlgo = true;
+        espacoPendente = true;
+    }
+
+    private void escreverCodigo(String codigoMorse, Appendable destino) throws IOException {
+        if (espacoPendente || escreveuAlgo) {
+            destino.append(' ');
+        }
+        destino.append(codigoMorse);
+        escreveuAlgo = true;
+        espacoPendente = false;
+
+        ContadorVisitas contador = arvore.getContadorVisitas();
+        if (contador != null) {
+            contador.registrarCodigos(codigoMorse);
+        }
+    }
+}
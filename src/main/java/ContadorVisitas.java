@@ -0,0 +1,108 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de uso de cada posição da árvore (heap implícito: raiz = 0,
+ * ponto = 2i + 1, traço = 2i + 2), alimentados pela codificação e decodificação
+ *
+ * No caminho quente só a posição final de cada letra é incrementada, em um LongAdder
+ * (contador com células por thread, sem disputa). As visitas dos nós intermediários
+ * são somadas apenas na amostragem: um nó conta todas as letras da sua subárvore.
+ *
+ * As posições dependem só do código, então o mesmo contador pode ser compartilhado
+ * entre cópias da árvore (ArvoreMorseConcorrente).
+ */
+public class ContadorVisitas {
+    private final int profundidade;
+    private final LongAdder[] contadores;
+
+    /**
+     * @param profundidade Maior comprimento de código contado (códigos mais longos são ignorados)
+     */
+    public ContadorVisitas(int profundidade) {
+        if (profundidade < 0 || profundidade > ArvoreCompilada.PROFUNDIDADE_MAXIMA) {
+            throw new IllegalArgumentException("Profundidade fora do intervalo 0-" + ArvoreCompilada.PROFUNDIDADE_MAXIMA);
+        }
+        this.profundidade = profundidade;
+        this.contadores = new LongAdder[(1 << (profundidade + 1)) - 1];
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra o uso de uma posição do heap
+     */
+    public void registrarPosicao(int posicao) {
+        if (posicao >= 0 && posicao < contadores.length) {
+            contadores[posicao].increment();
+        }
+    }
+
+    /**
+     * Registra o código codigo[inicio, fim) (apenas pontos e traços)
+     */
+    public void registrarCodigo(CharSequence codigo, int inicio, int fim) {
+        if (fim - inicio > profundidade) {
+            return;
+        }
+
+        int posicao = 0;
+        for (int i = inicio; i < fim; i++) {
+            char simbolo = codigo.charAt(i);
+            if (simbolo == '.') {
+                posicao = 2 * posicao + 1;
+            } else if (simbolo == '-') {
+                posicao = 2 * posicao + 2;
+            } else {
+                return;
+            }
+        }
+        contadores[posicao].increment();
+    }
+
+    /**
+     * Registra todos os códigos de uma sequência separada por espaços
+     */
+    public void registrarCodigos(CharSequence codigos) {
+        int inicio = 0;
+        for (int i = 0; i <= codigos.length(); i++) {
+            if (i == codigos.length() || codigos.charAt(i) == ' ') {
+                if (i > inicio) {
+                    registrarCodigo(codigos, inicio, i);
+                }
+                inicio = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Lê os contadores sem bloquear quem está registrando
+     * @param destino Recebe, para cada posição, as visitas do nó e de toda a sua
+     *                subárvore (deve ter getQuantidadePosicoes() elementos)
+     * @return Total de letras registradas (visitas da raiz)
+     */
+    public long amostrar(long[] destino) {
+        for (int i = 0; i < contadores.length; i++) {
+            destino[i] = contadores[i].sum();
+        }
+        // Filhos vêm depois dos pais: soma de baixo para cima
+        for (int i = contadores.length - 1; i > 0; i--) {
+            destino[(i - 1) / 2] += destino[i];
+        }
+        return destino[0];
+    }
+
+    public void zerar() {
+        for (LongAdder contador : contadores) {
+            contador.reset();
+        }
+    }
+
+    public int getProfundidade() {
+        return profundidade;
+    }
+
+    public int getQuantidadePosicoes() {
+        return contadores.length;
+    }
+}
@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Cursor de decodificação símbolo a símbolo, para entrada ao vivo (manipulador/keyer)
+ *
+ * Cada ponto ou traço desce um nível a partir do nó atual; o fim de letra devolve a
+ * letra do nó em O(1) e volta à raiz. Junto com o nó o cursor guarda a posição no heap
+ * implícito (raiz = 0, ponto = 2i + 1, traço = 2i + 2): as letras ainda alcançáveis
+ * ficam em faixas contíguas do heap, uma por nível abaixo do cursor. As posições
+ * ocupadas são guardadas em ordem, então cada faixa é achada por busca binária e só as
+ * letras existentes são visitadas e copiadas para um array do chamador, sem alocar nada.
+ *
+ * Alterações da árvore são percebidas no início da próxima letra.
+ */
+public class CursorDecodificacao {
+    private final ArvoreMorse arvore;
+    private TabelaDecodificacao compilada;
+    private long versao;
+    private int[] ocupadas;    // Posições do heap com letra, em ordem crescente
+
+    private No atual;          // null = prefixo sem nó na árvore
+    private int posicao;       // Posição do nó atual no heap implícito
+    private int comprimento;   // Símbolos recebidos na letra atual
+
+    public CursorDecodificacao(ArvoreMorse arvore) {
+        this.arvore = arvore;
+        atualizarArvore();
+        this.atual = arvore.getRaiz();
+    }
+
+    /**
+     * Recebe um ponto
+     * @return true se o prefixo atual ainda existe na árvore
+     */
+    public boolean ponto() {
+        comprimento++;
+        if (atual != null) {
+            atual = atual.getEsquerda();
+            posicao = 2 * posicao + 1;
+        }
+        return atual != null;
+    }
+
+    /**
+     * Recebe um traço
+     * @return true se o prefixo atual ainda existe na árvore
+     */
+    public boolean traco() {
+        comprimento++;
+        if (atual != null) {
+            atual = atual.getDireita();
+            posicao = 2 * posicao + 2;
+        }
+        return atual != null;
+    }
+
+    /**
+     * Recebe o intervalo entre letras: conclui a letra atual e volta à raiz
+     * @return Letra decodificada, ou '\0' se não houver símbolos ou o código não existir
+     */
+    public char fimLetra() {
+        char letra = getLetraAtual();
+        if (letra != '\0') {
+            ContadorVisitas contador = arvore.getContadorVisitas();
+            if (contador != null) {
+                contador.registrarPosicao(posicao);
+            }
+        }
+        reiniciar();
+        return letra;
+    }
+
+    /**
+     * Recebe o intervalo entre palavras: conclui a letra atual e escreve em saida a
+     * letra (ou '?' se o código não existir) seguida do espaço entre palavras
+     * @return Letra decodificada, ou '\0' se não houver letra pendente válida
+     */
+    public char fimPalavra(Appendable saida) throws IOException {
+        boolean pendente = comprimento > 0;
+        char letra = fimLetra();
+        if (letra != '\0') {
+            saida.append(letra);
+        } else if (pendente) {
+            saida.append(DecodificadorStream.CARACTERE_DESCONHECIDO);
+        }
+        saida.append(' ');
+        return letra;
+    }
+
+    /**
+     * Letra do prefixo atual, sem concluí-la (prévia para a interface)
+     * @return Letra, ou '\0' se o prefixo estiver vazio, não existir ou cair em nó vazio
+     */
+    public char getLetraAtual() {
+        if (comprimento == 0 || atual == null || atual.isVazio()) {
+            return '\0';
+        }
+        return atual.getLetra();
+    }
+
+    /**
+     * Copia para destino as letras alcançáveis a partir do prefixo atual (inclusive a
+     * do próprio prefixo), em ordem de comprimento do código e, no mesmo comprimento,
+     * de pontos antes de traços
+     * @param destino Recebe as letras (as que não couberem são ignoradas)
+     * @return Quantidade de letras escritas em destino
+     */
+    public int letrasAlcancaveis(char[] destino) {
+        if (atual == null) {
+            return 0;
+        }
+
+        int escritas = 0;
+        int profundidade = compilada.getProfundidade();
+        // Bits do prefixo: posição menos o início do nível (2^comprimento - 1)
+        int bits = posicao - ((1 << comprimento) - 1);
+
+        // Abaixo do cursor, o nível comprimento + k ocupa as posições
+        // 2^(comprimento+k) - 1 + [bits * 2^k, (bits + 1) * 2^k)
+        for (int k = 0; comprimento + k <= profundidade; k++) {
+            int inicioNivel = (1 << (comprimento + k)) - 1;
+            int fim = inicioNivel + ((bits + 1) << k);
+            int i = Arrays.binarySearch(ocupadas, inicioNivel + (bits << k));
+            for (i = i >= 0 ? i : -i - 1; i < ocupadas.length && ocupadas[i] < fim; i++) {
+                if (escritas == destino.length) {
+                    return escritas;
+                }
+                int ocupada = ocupadas[i] - inicioNivel;
+                destino[escritas++] = compilada.decodificarSimbolo(comprimento + k, ocupada);
+            }
+        }
+        return escritas;
+    }
+
+    /**
+     * Descarta a letra em andamento e volta à raiz
+     */
+    public void reiniciar() {
+        if (arvore.getVersao() != versao) {
+            atualizarArvore();
+        }
+        atual = arvore.getRaiz();
+        posicao = 0;
+        comprimento = 0;
+    }
+
+    /**
+     * Quantidade de símbolos recebidos na letra atual
+     */
+    public int getComprimento() {
+        return comprimento;
+    }
+
+    private void atualizarArvore() {
+        compilada = arvore.compilar();
+        if (compilada == null) {
+            throw new IllegalStateException("Árvore profunda demais para o cursor de decodificação");
+        }
+        versao = arvore.getVersao();
+
+        int quantidade = 0;
+        int[] posicoes = new int[16];
+        for (int n = 0; n <= compilada.getProfundidade(); n++) {
+            for (int b = 0; b < (1 << n); b++) {
+                if (compilada.decodificarSimbolo(n, b) != '\0') {
+                    if (quantidade == posicoes.length) {
+                        posicoes = Arrays.copyOf(posicoes, quantidade * 2);
+                    }
+                    posicoes[quantidade++] = (1 << n) - 1 + b;
+                }
+            }
+        }
+        ocupadas = Arrays.copyOf(posicoes, quantidade);
+    }
+}
@@ -0,0 +1,397 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodificador de Morse a partir de áudio PCM de 16 bits (WAV ou fluxo bruto)
+ *
+ * O áudio é processado em blocos de alguns milissegundos. Em cada bloco um filtro de
+ * Goertzel mede a energia na frequência do tom; um limiar adaptativo (média geométrica
+ * entre o nível de sinal e o nível de ruído) decide se o tom está ligado. A duração do
+ * ponto é estimada continuamente a partir das marcas recebidas, e os pontos/traços
+ * caminham direto no heap da árvore compilada. Cada letra é emitida assim que o
+ * silêncio ultrapassa o espaço entre letras, com latência de no máximo um bloco.
+ *
+ * O nível de ruído é aprendido nos trechos sem tom: se o áudio já começa com tom,
+ * as primeiras letras podem se perder até o primeiro silêncio.
+ */
+public class DecodificadorAudio {
+    private static final double DURACAO_BLOCO_SEGUNDOS = 0.005;
+    private static final int TAMANHO_BUFFER = 8192;
+    // Bloco fmt: 16 bytes em PCM simples, 18 ou 40 (WAVE_FORMAT_EXTENSIBLE) nas outras variantes
+    private static final int TAMANHO_MINIMO_FMT = 16;
+    private static final int TAMANHO_MAXIMO_FMT = 64;
+    // Tamanho do bloco data gravado por quem não sabe o tamanho final (fluxo ao vivo)
+    private static final long TAMANHO_DATA_DESCONHECIDO = 0xFFFFFFFFL;
+    // Velocidade suposta até a primeira estimativa da duração do ponto
+    private static final double PPM_INICIAL = 20.0;
+    // Decaimento por bloco do nível de sinal e peso de cada bloco na média do ruído
+    private static final double DECAIMENTO_SINAL = 0.9995;
+    private static final double PESO_RUIDO = 0.1;
+    // Razão entre o espaço entre palavras (7 unidades) e entre letras (3 unidades)
+    private static final double RAZAO_PALAVRA_LETRA = 7.0 / 3.0;
+    // Relação sinal/ruído mínima para considerar que há tom
+    private static final double RELACAO_MINIMA = 10.0;
+
+    private final ArvoreMorse arvore;
+    private final double frequenciaTom;
+
+    // Configuração do filtro (recalculada quando a taxa de amostragem muda)
+    private float taxaAmostragem;
+    private int amostrasPorBloco;
+    private double coeficiente;
+
+    // Estado do filtro de Goertzel no bloco atual
+    private double s1;
+    private double s2;
+    private int amostrasNoBloco;
+
+    // Estado do detector de tom
+    private double nivelSinal;
+    private double nivelRuido;
+    private boolean tomLigado;
+    private int blocosNoEstado;
+    private double duracaoPonto; // Em blocos
+    private double espacoLetraMedio; // Em blocos (separado do ponto por causa do espaçamento Farnsworth)
+    private boolean espacoLetraEmitido;
+    private boolean emitiuLetra; // Já há texto antes do próximo espaço entre palavras
+
+    // Letra em andamento no heap implícito
+    private ArvoreCompilada compilada;
+    private int posicao;
+    private int comprimento;
+    private boolean invalido;
+    private long letrasDesconhecidas;
+
+    /**
+     * @param arvore Árvore usada na decodificação
+     * @param frequenciaTom Frequência do tom Morse em Hz (ex.: 600)
+     */
+    public DecodificadorAudio(ArvoreMorse arvore, double frequenciaTom) {
+        this.arvore = arvore;
+        this.frequenciaTom = frequenciaTom;
+    }
+
+    /**
+     * Decodifica um arquivo WAV (PCM 16 bits; com vários canais usa apenas o primeiro)
+     */
+    public void decodificarWav(InputStream entrada, Appendable saida) throws IOException {
+        byte[] cabecalho = new byte[12];
+        lerCompleto(entrada, cabecalho, 12);
+        if (!textoIgual(cabecalho, 0, "RIFF") || !textoIgual(cabecalho, 8, "WAVE")) {
+            throw new IOException("Arquivo não é WAV (RIFF/WAVE)");
+        }
+
+        float taxa = 0;
+        int canais = 0;
+        byte[] pedaco = new byte[8];
+
+        while (true) {
+            lerCompleto(entrada, pedaco, 8);
+            long tamanho = lerInt32(pedaco, 4) & 0xFFFFFFFFL;
+
+            if (textoIgual(pedaco, 0, "fmt ")) {
+                if (tamanho < TAMANHO_MINIMO_FMT || tamanho > TAMANHO_MAXIMO_FMT) {
+                    throw new IOException("Bloco fmt com tamanho inválido: " + tamanho);
+                }
+                byte[] formato = new byte[(int) (tamanho + (tamanho & 1))];
+                lerCompleto(entrada, formato, formato.length);
+                int tipo = lerInt16(formato, 0);
+                canais = lerInt16(formato, 2);
+                taxa = lerInt32(formato, 4);
+                int bitsPorAmostra = lerInt16(formato, 14);
+                if ((tipo != 1 && tipo != 0xFFFE) || bitsPorAmostra != 16) {
+                    throw new IOException("Apenas WAV PCM de 16 bits é suportado");
+                }
+                if (canais <= 0 || taxa <= 0) {
+                    throw new IOException("WAV com canais ou taxa de amostragem inválidos");
+                }
+            } else if (textoIgual(pedaco, 0, "data")) {
+                if (canais == 0) {
+                    throw new IOException("WAV sem bloco fmt antes de data");
+                }
+                // Blocos depois de data (LIST, id3...) não são amostras
+                long limite = tamanho == TAMANHO_DATA_DESCONHECIDO ? Long.MAX_VALUE : tamanho;
+                decodificarPcm(entrada, taxa, canais, limite, saida);
+                return;
+            } else {
+                pular(entrada, tamanho + (tamanho & 1));
+            }
+        }
+    }
+
+    /**
+     * Decodifica PCM bruto de 16 bits little-endian até o fim do fluxo
+     * @param canais Quantidade de canais intercalados (apenas o primeiro é usado)
+     * @throws IllegalArgumentException se canais ou taxa não forem positivos
+     */
+    public void decodificarPcm(InputStream entrada, float taxa, int canais, Appendable saida) throws IOException {
+        decodificarPcm(entrada, taxa, canais, Long.MAX_VALUE, saida);
+    }
+
+    /**
+     * Decodifica no máximo limite bytes de PCM (o tamanho do bloco data no WAV)
+     */
+    private void decodificarPcm(InputStream entrada, float taxa, int canais, long limite, Appendable saida) throws IOException {
+        if (canais <= 0 || canais > 0xFFFF) {
+            throw new IllegalArgumentException("Quantidade de canais fora do intervalo 1-65535");
+        }
+        if (!(taxa > 0)) {
+            throw new IllegalArgumentException("Taxa de amostragem deve ser positiva");
+        }
+        configurar(taxa);
+        int bytesPorQuadro = 2 * canais;
+        // Cabe pelo menos um quadro inteiro, senão a leitura não avançaria
+        byte[] buffer = new byte[Math.max(TAMANHO_BUFFER, 2 * bytesPorQuadro)];
+        int pendentes = 0;
+        long restantes = limite;
+
+        int lidos;
+        while (restantes > 0
+                && (lidos = entrada.read(buffer, pendentes, (int) Math.min(buffer.length - pendentes, restantes))) != -1) {
+            restantes -= lidos;
+            int disponiveis = pendentes + lidos;
+            int quadros = disponiveis / bytesPorQuadro;
+
+            for (int q = 0; q < quadros; q++) {
+                int i = q * bytesPorQuadro;
+                processarAmostra((short) ((buffer[i] & 0xFF) | (buffer[i + 1] << 8)), saida);
+            }
+
+            // Guarda o quadro incompleto para a próxima leitura
+            pendentes = disponiveis - quadros * bytesPorQuadro;
+            System.arraycopy(buffer, quadros * bytesPorQuadro, buffer, 0, pendentes);
+        }
+
+        finalizar(saida);
+    }
+
+    /**
+     * Processa amostras já convertidas (uso em tempo real, bloco a bloco)
+     * A taxa de amostragem precisa ter sido definida com configurar().
+     * @throws IllegalStateException se configurar() ainda não foi chamado
+     */
+    public void processarAmostras(short[] amostras, int inicio, int quantidade, Appendable saida) throws IOException {
+        if (amostrasPorBloco == 0) {
+            throw new IllegalStateException("Taxa de amostragem não definida; chame configurar() antes");
+        }
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            processarAmostra(amostras[i], saida);
+        }
+    }
+
+    /**
+     * Define a taxa de amostragem e reinicia todo o estado do decodificador
+     */
+    public void configurar(float taxa) {
+        this.taxaAmostragem = taxa;
+        this.amostrasPorBloco = Math.max(1, Math.round(taxa * (float) DURACAO_BLOCO_SEGUNDOS));
+        this.coeficiente = 2 * Math.cos(2 * Math.PI * frequenciaTom / taxa);
+
+        s1 = 0;
+        s2 = 0;
+        amostrasNoBloco = 0;
+        nivelSinal = 0;
+        nivelRuido = -1;
+        tomLigado = false;
+        blocosNoEstado = 0;
+        // Duração do ponto = 1,2 / PPM segundos
+        duracaoPonto = (1.2 / PPM_INICIAL) / (amostrasPorBloco / (double) taxa);
+        espacoLetraMedio = 0;
+        espacoLetraEmitido = true;
+        emitiuLetra = false;
+        compilada = arvore.compilar();
+        posicao = 0;
+        comprimento = 0;
+        invalido = false;
+        letrasDesconhecidas = 0;
+    }
+
+    /**
+     * Conclui a marca e a letra pendentes no fim do áudio
+     */
+    public void finalizar(Appendable saida) throws IOException {
+        if (tomLigado) {
+            concluirMarca(blocosNoEstado);
+            tomLigado = false;
+        }
+        concluirLetra(saida);
+    }
+
+    /**
+     * Retorna a duração estimada do ponto em segundos
+     */
+    public double getDuracaoPontoSegundos() {
+        return duracaoPonto * amostrasPorBloco / taxaAmostragem;
+    }
+
+    /**
+     * Retorna quantas letras recebidas não existem na árvore (escritas como '?')
+     */
+    public long getLetrasDesconhecidas() {
+        return letrasDesconhecidas;
+    }
+
+    private void processarAmostra(short amostra, Appendable saida) throws IOException {
+        double s0 = amostra + coeficiente * s1 - s2;
+        s2 = s1;
+        s1 = s0;
+
+        if (++amostrasNoBloco == amostrasPorBloco) {
+            double potencia = (s1 * s1 + s2 * s2 - coeficiente * s1 * s2) / ((double) amostrasPorBloco * amostrasPorBloco);
+            s1 = 0;
+            s2 = 0;
+            amostrasNoBloco = 0;
+            processarBloco(potencia, saida);
+        }
+    }
+
+    private void processarBloco(double potencia, Appendable saida) throws IOException {
+        // Níveis adaptativos: o sinal acompanha os picos, o ruído é a média dos blocos sem tom
+        nivelSinal = potencia > nivelSinal ? potencia : nivelSinal * DECAIMENTO_SINAL;
+        if (nivelRuido < 0) {
+            nivelRuido = Math.max(potencia, 1e-9);
+        }
+
+        double limiar = Math.sqrt(nivelSinal * nivelRuido);
+        boolean ligado = nivelSinal > RELACAO_MINIMA * nivelRuido && potencia > limiar;
+        if (!ligado) {
+            nivelRuido = Math.max(nivelRuido + PESO_RUIDO * (potencia - nivelRuido), 1e-9);
+        }
+
+        if (ligado == tomLigado) {
+            blocosNoEstado++;
+            if (!ligado) {
+                verificarSilencio(saida);
+            }
+            return;
+        }
+
+        if (tomLigado) {
+            concluirMarca(blocosNoEstado);
+        } else {
+            concluirSilencio(blocosNoEstado, saida);
+        }
+
+        tomLigado = ligado;
+        blocosNoEstado = 1;
+        if (ligado) {
+            espacoLetraEmitido = false;
+        }
+    }
+
+    private void concluirMarca(int blocos) {
+        boolean traco = blocos >= 2 * duracaoPonto;
+
+        // Atualiza a estimativa do ponto (um traço vale três pontos)
+        double amostraPonto = traco ? blocos / 3.0 : blocos;
+        duracaoPonto = 0.8 * duracaoPonto + 0.2 * amostraPonto;
+
+        comprimento++;
+        if (comprimento > ArvoreCompilada.PROFUNDIDADE_MAXIMA) {
+            invalido = true;
+        } else {
+            posicao = 2 * posicao + (traco ? 2 : 1);
+        }
+    }
+
+    private void concluirSilencio(int blocos, Appendable saida) throws IOException {
+        if (blocos < 2 * duracaoPonto) {
+            // Espaço entre pontos/traços da mesma letra: também dura um ponto
+            if (comprimento > 0) {
+                duracaoPonto = 0.8 * duracaoPonto + 0.2 * blocos;
+            }
+            return;
+        }
+
+        // Silêncio antes da primeira letra não é espaço entre letras nem entre palavras
+        if (!emitiuLetra) {
+            return;
+        }
+
+        // Espaço entre letras ou entre palavras: o limiar é a média geométrica
+        // dos dois espaços esperados, e ambos atualizam a estimativa do espaço entre letras.
+        // O espaço entre letras nunca é menor que três pontos (Farnsworth só o alonga).
+        espacoLetraMedio = Math.max(espacoLetraMedio, 3 * duracaoPonto);
+        boolean palavra = blocos >= Math.sqrt(RAZAO_PALAVRA_LETRA) * espacoLetraMedio;
+        double amostraLetra = palavra ? blocos / RAZAO_PALAVRA_LETRA : blocos;
+        espacoLetraMedio = 0.7 * espacoLetraMedio + 0.3 * amostraLetra;
+
+        if (palavra) {
+            // O espaço entre palavras só é escrito quando o próximo tom chega,
+            // para não deixar espaço sobrando no fim da transmissão
+            saida.append(' ');
+            emitiuLetra = false;
+        }
+    }
+
+    private void verificarSilencio(Appendable saida) throws IOException {
+        // A letra é emitida assim que o silêncio passa do espaço entre letras
+        if (!espacoLetraEmitido && blocosNoEstado >= 2 * duracaoPonto) {
+            concluirLetra(saida);
+            espacoLetraEmitido = true;
+        }
+    }
+
+    private void concluirLetra(Appendable saida) throws IOException {
+        if (comprimento == 0) {
+            return;
+        }
+
+        char letra = invalido || compilada == null ? '\0'
+                : compilada.decodificarSimbolo(comprimento, posicao - ((1 << comprimento) - 1));
+        if (letra == '\0') {
+            letrasDesconhecidas++;
+            saida.append(DecodificadorStream.CARACTERE_DESCONHECIDO);
+        } else {
+            saida.append(letra);
+        }
+        emitiuLetra = true;
+
+        posicao = 0;
+        comprimento = 0;
+        invalido = false;
+    }
+
+    private static void lerCompleto(InputStream entrada, byte[] destino, int quantidade) throws IOException {
+        int lidos = 0;
+        while (lidos < quantidade) {
+            int n = entrada.read(destino, lidos, quantidade - lidos);
+            if (n == -1) {
+                throw new EOFException("Fim inesperado do arquivo WAV");
+            }
+            lidos += n;
+        }
+    }
+
+    private static void pular(InputStream entrada, long quantidade) throws IOException {
+        while (quantidade > 0) {
+            long pulados = entrada.skip(quantidade);
+            if (pulados <= 0) {
+                if (entrada.read() == -1) {
+                    throw new EOFException("Fim inesperado do arquivo WAV");
+                }
+                pulados = 1;
+            }
+            quantidade -= pulados;
+        }
+    }
+
+    private static boolean textoIgual(byte[] dados, int inicio, String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (dados[inicio + i] != texto.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lerInt16(byte[] dados, int inicio) {
+        return (dados[inicio] & 0xFF) | ((dados[inicio + 1] & 0xFF) << 8);
+    }
+
+    private static int lerInt32(byte[] dados, int inicio) {
+        return (dados[inicio] & 0xFF) | ((dados[inicio + 1] & 0xFF) << 8)
+                | ((dados[inicio + 2] & 0xFF) << 16) | ((dados[inicio + 3] & 0xFF) << 24);
+    }
+}
@@ -0,0 +1,224 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodificador Morse direto entre ByteBuffers (entrada ASCII, saída UTF-8)
+ *
+ * Cada byte de entrada é classificado por uma tabela de 256 posições e o código em
+ * andamento é acumulado como posição no heap implícito, como em DecodificadorStream.
+ * Os bytes UTF-8 de cada letra da árvore são calculados no construtor, então o laço
+ * principal não cria objetos.
+ *
+ * Retorna OVERFLOW quando a saída não tem espaço para concluir o próximo código
+ * (bastam 4 bytes livres) e UNDERFLOW quando a entrada acaba. Um código pode começar
+ * em um pedaço e terminar no seguinte; chame finalizar() ao fim da entrada.
+ *
+ * A tabela é uma foto da árvore (ou da TabelaDecodificacao, como um snapshot
+ * mapeado) no momento da construção: crie outro decodificador depois de alterar a árvore.
+ */
+public class DecodificadorBytes {
+    public static final int TAMANHO_MINIMO_SAIDA = 4;
+
+    private static final byte OUTRO = 0;
+    private static final byte PONTO = 1;
+    private static final byte TRACO = 2;
+    private static final byte QUEBRA_LINHA = 3;
+    private static final byte SEPARADOR = 4;
+    private static final byte BARRA = 5;
+
+    private static final byte[] CLASSES = new byte[256];
+    private static final byte[] ESPACO = {' '};
+    private static final byte[] DESCONHECIDO = {(byte) DecodificadorStream.CARACTERE_DESCONHECIDO};
+    private static final byte[] NADA = {};
+
+    static {
+        for (int b = 0; b <= ' '; b++) {
+            CLASSES[b] = SEPARADOR;
+        }
+        CLASSES['\n'] = QUEBRA_LINHA;
+        CLASSES['\r'] = QUEBRA_LINHA;
+        CLASSES['.'] = PONTO;
+        CLASSES['-'] = TRACO;
+        CLASSES['/'] = BARRA;
+    }
+
+    private final ArvoreMorse arvore;  // null = tabela sem árvore (sem contador de visitas)
+    private final byte[][] letras;  // Bytes UTF-8 da letra de cada posição do heap (null = vazia)
+
+    // Estado do código em andamento (mesmo significado que em DecodificadorStream)
+    private int posicao;
+    private int comprimento;
+    private boolean invalido;
+    private boolean barra;
+    private long codigosNaoEncontrados;
+
+    public DecodificadorBytes(ArvoreMorse arvore) {
+        this(arvore, compilar(arvore));
+    }
+
+    /**
+     * Decodifica direto de uma tabela (ex: ArvoreMapeada, sem montar nós);
+     * não há contador de visitas nesse caso
+     */
+    public DecodificadorBytes(TabelaDecodificacao tabela) {
+        this(null, tabela);
+    }
+
+    private DecodificadorBytes(ArvoreMorse arvore, TabelaDecodificacao tabela) {
+        if (tabela.getProfundidade() > ArvoreCompilada.PROFUNDIDADE_MAXIMA) {
+            throw new IllegalStateException("Tabela profunda demais para decodificação por bytes");
+        }
+
+        this.arvore = arvore;
+        this.letras = new byte[(1 << (tabela.getProfundidade() + 1)) - 1][];
+        for (int n = 0; n <= tabela.getProfundidade(); n++) {
+            for (int bits = 0; bits < (1 << n); bits++) {
+                char letra = tabela.decodificarSimbolo(n, bits);
+                if (letra != '\0') {
+                    letras[(1 << n) - 1 + bits] = String.valueOf(letra).getBytes(StandardCharsets.UTF_8);
+                }
+            }
+        }
+    }
+
+    private static ArvoreCompilada compilar(ArvoreMorse arvore) {
+        ArvoreCompilada compilada = arvore.compilar();
+        if (compilada == null) {
+            throw new IllegalStateException("Árvore profunda demais para decodificação por bytes");
+        }
+        return compilada;
+    }
+
+    /**
+     * Decodifica o máximo possível de entrada para saida
+     * @return UNDERFLOW se toda a entrada foi consumida, OVERFLOW se faltou espaço na saída
+     */
+    public CoderResult decodificar(ByteBuffer entrada, ByteBuffer saida) {
+        int i = entrada.position();
+        int limiteEntrada = entrada.limit();
+        int j = saida.position();
+        int limiteSaida = saida.limit();
+
+        try {
+            for (; i < limiteEntrada; i++) {
+                int b = entrada.get(i) & 0xFF;
+
+                switch (CLASSES[b]) {
+                    case PONTO:
+                        avancar(2 * posicao + 1);
+                        break;
+                    case TRACO:
+                        avancar(2 * posicao + 2);
+                        break;
+                    case QUEBRA_LINHA:
+                    case SEPARADOR: {
+                        byte[] conclusao = concluirCodigo();
+                        int extra = CLASSES[b] == QUEBRA_LINHA ? 1 : 0;
+                        if (limiteSaida - j < conclusao.length + extra) {
+                            return CoderResult.OVERFLOW;
+                        }
+                        if (conclusao != NADA) {
+                            j = escrever(conclusao, saida, j);
+                        }
+                        if (extra > 0) {
+                            saida.put(j++, (byte) b);
+                        }
+                        break;
+                    }
+                    case BARRA:
+                        if (comprimento == 0 && !invalido && !barra) {
+                            barra = true;
+                        } else {
+                            invalido = true;
+                        }
+                        break;
+                    default:
+                        invalido = true;
+                }
+            }
+            return CoderResult.UNDERFLOW;
+        } finally {
+            entrada.position(i);
+            saida.position(j);
+        }
+    }
+
+    /**
+     * Conclui o último código pendente
+     * @return UNDERFLOW se concluiu, OVERFLOW se faltou espaço na saída
+     */
+    public CoderResult finalizar(ByteBuffer saida) {
+        byte[] conclusao = concluirCodigo();
+        if (saida.remaining() < conclusao.length) {
+            return CoderResult.OVERFLOW;
+        }
+        saida.position(escrever(conclusao, saida, saida.position()));
+        return CoderResult.UNDERFLOW;
+    }
+
+    /**
+     * Descarta o estado pendente e zera o contador de códigos não encontrados
+     */
+    public void reiniciar() {
+        posicao = 0;
+        comprimento = 0;
+        invalido = false;
+        barra = false;
+        codigosNaoEncontrados = 0;
+    }
+
+    /**
+     * Retorna quantos códigos não foram encontrados desde o último reinício
+     */
+    public long getCodigosNaoEncontrados() {
+        return codigosNaoEncontrados;
+    }
+
+    private void avancar(int novaPosicao) {
+        comprimento++;
+        if (barra || comprimento > ArvoreCompilada.PROFUNDIDADE_MAXIMA) {
+            invalido = true;
+        } else {
+            posicao = novaPosicao;
+        }
+    }
+
+    /**
+     * Bytes que concluem o código em andamento, sem alterar o estado
+     */
+    private byte[] concluirCodigo() {
+        if (barra && !invalido) {
+            return ESPACO;
+        }
+        if (comprimento == 0 && !invalido) {
+            return NADA;
+        }
+        byte[] letra = !invalido && posicao < letras.length ? letras[posicao] : null;
+        return letra != null ? letra : DESCONHECIDO;
+    }
+
+    /**
+     * Escreve a conclusão do código (já verificado o espaço) e zera o estado
+     */
+    private int escrever(byte[] conclusao, ByteBuffer saida, int j) {
+        if (conclusao == DESCONHECIDO) {
+            codigosNaoEncontrados++;
+        } else if (conclusao != ESPACO && conclusao != NADA && arvore != null) {
+            ContadorVisitas contador = arvore.getContadorVisitas();
+            if (contador != null) {
+                contador.registrarPosicao(posicao);
+            }
+        }
+
+        for (byte b : conclusao) {
+            saida.put(j++, b);
+        }
+
+        posicao = 0;
+        comprimento = 0;
+        invalido = false;
+        barra = false;
+        return j;
+    }
+}
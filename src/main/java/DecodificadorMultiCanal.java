@@ -0,0 +1,328 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Decodificação simultânea de muitos canais Morse independentes
+ *
+ * O estado de todos os canais fica em arrays primitivos indexados pelo número do
+ * canal (estrutura de arrays): a posição do código em andamento no heap implícito
+ * e um buffer circular de letras concluídas. Não há objetos por canal, então 100 mil
+ * canais com 32 letras de buffer ocupam cerca de 8 MB.
+ *
+ * Os símbolos chegam em lotes de eventos (ver evento()). Lotes grandes são
+ * distribuídos por faixas contíguas de canais, mantendo a ordem dos eventos de cada
+ * canal, e as faixas são processadas em paralelo em um ForkJoinPool: cada thread só
+ * toca a sua fatia dos arrays.
+ *
+ * A saída de cada canal é a mesma de DecodificadorStream: códigos desconhecidos viram
+ * '?' e o fim de palavra escreve um espaço. Quando o buffer de um canal enche, as
+ * letras mais antigas são descartadas.
+ *
+ * Não é seguro para uso simultâneo: processar() e ler() devem ser chamados da mesma
+ * thread (ou com sincronização externa). A tabela é uma foto da árvore no momento da
+ * construção.
+ */
+public class DecodificadorMultiCanal {
+    public static final int PONTO = 0;
+    public static final int TRACO = 1;
+    public static final int FIM_LETRA = 2;
+    public static final int FIM_PALAVRA = 3;
+
+    // Maior número de canais representável no evento (2 bits para o símbolo)
+    public static final int MAXIMO_CANAIS = 1 << 29;
+
+    // Abaixo deste tamanho o lote é processado sem dividir
+    private static final int TAMANHO_MINIMO_PARALELO = 16 * 1024;
+    // Faixas de canais por thread, para equilibrar a carga
+    private static final int FAIXAS_POR_THREAD = 4;
+
+    private static final int INVALIDO = -1;
+
+    private final ArvoreMorse arvore;
+    private final ForkJoinPool pool;
+    private final char[] letras;       // Letra de cada posição do heap ('\0' = vazia)
+    private final int canais;
+    private final int mascaraSaida;    // Capacidade do buffer de cada canal - 1 (potência de 2)
+
+    // Estado dos canais
+    private final int[] posicoes;      // Posição no heap do código em andamento (0 = nenhum, -1 = inválido)
+    private final char[] saidas;       // Buffers circulares: canal c ocupa [c * capacidade, (c + 1) * capacidade)
+    private final int[] escritas;      // Letras escritas por canal (contador circular)
+    private final int[] lidas;         // Letras lidas ou descartadas por canal
+
+    // Rascunho da distribuição dos lotes (reaproveitado entre chamadas)
+    private final int faixas;
+    private final int[] inicioFaixa;
+    private final int[] proximoFaixa;
+    private final long[] desconhecidosFaixa;
+    private final long[] descartadasFaixa;
+    private int[] ordenados = new int[0];
+
+    private long codigosNaoEncontrados;
+    private long letrasDescartadas;
+
+    public DecodificadorMultiCanal(ArvoreMorse arvore, int canais, int capacidadeSaida) {
+        this(arvore, canais, capacidadeSaida, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param canais Quantidade de canais (numerados de 0 a canais - 1)
+     * @param capacidadeSaida Letras guardadas por canal até a leitura (arredondada para potência de 2)
+     */
+    public DecodificadorMultiCanal(ArvoreMorse arvore, int canais, int capacidadeSaida, ForkJoinPool pool) {
+        if (canais <= 0 || canais > MAXIMO_CANAIS) {
+            throw new IllegalArgumentException("Quantidade de canais fora do intervalo 1-" + MAXIMO_CANAIS);
+        }
+        if (capacidadeSaida <= 0 || capacidadeSaida > 1 << 16) {
+            throw new IllegalArgumentException("Capacidade de saída fora do intervalo 1-65536");
+        }
+        ArvoreCompilada compilada = arvore.compilar();
+        if (compilada == null) {
+            throw new IllegalStateException("Árvore profunda demais para decodificação multicanal");
+        }
+
+        this.arvore = arvore;
+        this.pool = pool;
+        this.canais = canais;
+
+        this.letras = new char[(1 << (compilada.getProfundidade() + 1)) - 1];
+        for (int n = 0; n <= compilada.getProfundidade(); n++) {
+            for (int bits = 0; bits < (1 << n); bits++) {
+                letras[(1 << n) - 1 + bits] = compilada.decodificarSimbolo(n, bits);
+            }
+        }
+
+        int capacidade = capacidadeSaida == 1 ? 1 : Integer.highestOneBit(capacidadeSaida - 1) << 1;
+        this.mascaraSaida = capacidade - 1;
+        this.posicoes = new int[canais];
+        this.saidas = new char[Math.multiplyExact(canais, capacidade)];
+        this.escritas = new int[canais];
+        this.lidas = new int[canais];
+
+        this.faixas = Math.max(1, Math.min(canais, pool.getParallelism() * FAIXAS_POR_THREAD));
+        this.inicioFaixa = new int[faixas + 1];
+        this.proximoFaixa = new int[faixas];
+        this.desconhecidosFaixa = new long[faixas];
+        this.descartadasFaixa = new long[faixas];
+    }
+
+    /**
+     * Monta um evento para processar()
+     * @param simbolo PONTO, TRACO, FIM_LETRA ou FIM_PALAVRA
+     */
+    public static int evento(int canal, int simbolo) {
+        return (canal << 2) | simbolo;
+    }
+
+    /**
+     * Processa os eventos[0, quantidade) na ordem em que aparecem para cada canal
+     * @throws IllegalArgumentException se algum evento for de um canal inexistente
+     *         (nesse caso nenhum evento do lote é processado)
+     */
+    public void processar(int[] eventos, int quantidade) {
+        if (quantidade < TAMANHO_MINIMO_PARALELO || faixas == 1) {
+            for (int i = 0; i < quantidade; i++) {
+                verificarCanal(eventos[i] >>> 2);
+            }
+            long[] contagens = new long[2];
+            processarIntervalo(eventos, 0, quantidade, contagens);
+            codigosNaoEncontrados += contagens[0];
+            letrasDescartadas += contagens[1];
+            return;
+        }
+
+        distribuir(eventos, quantidade);
+        pool.invoke(new Processamento(0, faixas));
+
+        for (int f = 0; f < faixas; f++) {
+            codigosNaoEncontrados += desconhecidosFaixa[f];
+            letrasDescartadas += descartadasFaixa[f];
+        }
+    }
+
+    /**
+     * Ordenação por contagem dos eventos pela faixa do canal (estável: a ordem dos
+     * eventos de cada canal é mantida)
+     */
+    private void distribuir(int[] eventos, int quantidade) {
+        if (ordenados.length < quantidade) {
+            ordenados = new int[quantidade];
+        }
+
+        int[] contagem = inicioFaixa;
+        Arrays.fill(contagem, 0);
+        for (int i = 0; i < quantidade; i++) {
+            int canal = eventos[i] >>> 2;
+            verificarCanal(canal);
+            contagem[faixa(canal) + 1]++;
+        }
+        for (int f = 0; f < faixas; f++) {
+            contagem[f + 1] += contagem[f];
+        }
+
+        // Preenche usando cópias dos inícios, que continuam valendo para o processamento
+        int[] proximo = proximoFaixa;
+        System.arraycopy(contagem, 0, proximo, 0, faixas);
+        for (int i = 0; i < quantidade; i++) {
+            int evento = eventos[i];
+            ordenados[proximo[faixa(evento >>> 2)]++] = evento;
+        }
+    }
+
+    private int faixa(int canal) {
+        return (int) ((long) canal * faixas / canais);
+    }
+
+    private void verificarCanal(int canal) {
+        if (canal >= canais) {
+            throw new IllegalArgumentException("Canal inexistente: " + canal);
+        }
+    }
+
+    /**
+     * Aplica os eventos[de, ate) ao estado dos canais
+     * @param contagens Recebe {códigos desconhecidos, letras descartadas}
+     */
+    private void processarIntervalo(int[] eventos, int de, int ate, long[] contagens) {
+        int[] posicoes = this.posicoes;
+        char[] letras = this.letras;
+        int limite = letras.length;
+        ContadorVisitas contador = arvore.getContadorVisitas();
+
+        for (int i = de; i < ate; i++) {
+            int evento = eventos[i];
+            int canal = evento >>> 2;
+            int posicao = posicoes[canal];
+
+            switch (evento & 3) {
+                case PONTO:
+                case TRACO:
+                    if (posicao != INVALIDO) {
+                        // PONTO -> 2i + 1, TRACO -> 2i + 2
+                        posicao = 2 * posicao + 1 + (evento & 1);
+                        posicoes[canal] = posicao < limite ? posicao : INVALIDO;
+                    }
+                    break;
+                case FIM_LETRA:
+                    concluir(canal, posicao, contador, contagens);
+                    break;
+                default:
+                    concluir(canal, posicao, contador, contagens);
+                    escrever(canal, ' ', contagens);
+            }
+        }
+    }
+
+    private void concluir(int canal, int posicao, ContadorVisitas contador, long[] contagens) {
+        if (posicao == 0) {
+            return;
+        }
+        posicoes[canal] = 0;
+
+        char letra = posicao != INVALIDO ? letras[posicao] : '\0';
+        if (letra == '\0') {
+            contagens[0]++;
+            escrever(canal, DecodificadorStream.CARACTERE_DESCONHECIDO, contagens);
+        } else {
+            escrever(canal, letra, contagens);
+            if (contador != null) {
+                contador.registrarPosicao(posicao);
+            }
+        }
+    }
+
+    private void escrever(int canal, char letra, long[] contagens) {
+        int escrita = escritas[canal];
+        if (escrita - lidas[canal] > mascaraSaida) {
+            // Buffer cheio: descarta a letra mais antiga
+            lidas[canal]++;
+            contagens[1]++;
+        }
+        saidas[canal * (mascaraSaida + 1) + (escrita & mascaraSaida)] = letra;
+        escritas[canal] = escrita + 1;
+    }
+
+    /**
+     * Quantidade de letras concluídas e ainda não lidas do canal
+     */
+    public int disponiveis(int canal) {
+        return escritas[canal] - lidas[canal];
+    }
+
+    /**
+     * Copia as letras concluídas do canal para destino[deslocamento, ...) e as marca como lidas
+     * @return Quantidade de letras copiadas
+     */
+    public int ler(int canal, char[] destino, int deslocamento) {
+        int quantidade = Math.min(disponiveis(canal), destino.length - deslocamento);
+        int base = canal * (mascaraSaida + 1);
+        int lida = lidas[canal];
+        for (int i = 0; i < quantidade; i++) {
+            destino[deslocamento + i] = saidas[base + ((lida + i) & mascaraSaida)];
+        }
+        lidas[canal] = lida + quantidade;
+        return quantidade;
+    }
+
+    /**
+     * Descarta o código em andamento e as letras não lidas do canal
+     */
+    public void reiniciar(int canal) {
+        posicoes[canal] = 0;
+        lidas[canal] = escritas[canal];
+    }
+
+    public int getQuantidadeCanais() {
+        return canais;
+    }
+
+    /**
+     * Capacidade do buffer de saída de cada canal
+     */
+    public int getCapacidadeSaida() {
+        return mascaraSaida + 1;
+    }
+
+    /**
+     * Retorna quantos códigos não foram encontrados em todos os canais
+     */
+    public long getCodigosNaoEncontrados() {
+        return codigosNaoEncontrados;
+    }
+
+    /**
+     * Retorna quantas letras foram descartadas por falta de leitura (buffer cheio)
+     */
+    public long getLetrasDescartadas() {
+        return letrasDescartadas;
+    }
+
+    /**
+     * Processa as faixas [de, ate) dividindo o intervalo ao meio recursivamente
+     */
+    @SuppressWarnings("serial")  // Tarefa interna, nunca serializada
+    private class Processamento extends RecursiveAction {
+        private final int de;
+        private final int ate;
+
+        Processamento(int de, int ate) {
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de == 1) {
+                long[] contagens = new long[2];
+                processarIntervalo(ordenados, inicioFaixa[de], inicioFaixa[de + 1], contagens);
+                desconhecidosFaixa[de] = contagens[0];
+                descartadasFaixa[de] = contagens[1];
+                return;
+            }
+
+            int meio = (de + ate) >>> 1;
+            invokeAll(new Processamento(de, meio), new Processamento(meio, ate));
+        }
+    }
+}
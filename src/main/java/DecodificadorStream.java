@@ -0,0 +1,179 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodificador Morse em fluxo (streaming)
+ * Lê o código aos pedaços com um buffer de tamanho fixo e escreve o texto à medida
+ * que cada código termina, usando memória constante independente do tamanho da entrada.
+ *
+ * Formato aceito: códigos separados por espaço, palavras separadas por "/".
+ * Quebras de linha são copiadas para a saída; códigos desconhecidos viram '?'.
+ */
+public class DecodificadorStream {
+    public static final char CARACTERE_DESCONHECIDO = '?';
+    private static final int TAMANHO_BUFFER = 8192;
+
+    private final ArvoreMorse arvore;      // null quando a tabela é fixa (snapshot)
+    private TabelaDecodificacao compilada;
+    private long versao;                   // Versão da árvore quando a tabela foi compilada
+
+    // Estado do código em andamento (persiste entre pedaços da entrada)
+    private int posicao;         // Posição no heap implícito
+    private int comprimento;     // Quantidade de símbolos do código atual
+    private boolean invalido;    // Código contém caractere que não é ponto/traço
+    private boolean barra;       // Código atual é exatamente "/"
+    private long codigosNaoEncontrados;
+
+    public DecodificadorStream(ArvoreMorse arvore) {
+        this.arvore = arvore;
+    }
+
+    /**
+     * Decodifica com uma tabela fixa, por exemplo um snapshot mapeado (ArvoreMapeada)
+     */
+    public DecodificadorStream(TabelaDecodificacao tabela) {
+        this.arvore = null;
+        this.compilada = tabela;
+    }
+
+    /**
+     * Decodifica todo o conteúdo de um Reader para um Writer
+     * @return Quantidade de códigos não encontrados na árvore
+     */
+    public long decodificar(Reader entrada, Writer saida) throws IOException {
+        reiniciar();
+        Writer destino = saida instanceof BufferedWriter ? saida : new BufferedWriter(saida, TAMANHO_BUFFER);
+        char[] buffer = new char[TAMANHO_BUFFER];
+
+        int lidos;
+        while ((lidos = entrada.read(buffer)) != -1) {
+            for (int i = 0; i < lidos; i++) {
+                processar(buffer[i], destino);
+            }
+        }
+
+        finalizar(destino);
+        destino.flush();
+        return codigosNaoEncontrados;
+    }
+
+    /**
+     * Decodifica todo o conteúdo de um canal de bytes (ASCII) para outro canal (UTF-8)
+     * @return Quantidade de códigos não encontrados na árvore
+     */
+    public long decodificar(ReadableByteChannel entrada, WritableByteChannel saida) throws IOException {
+        // Bytes fora do ASCII viram U+FFFD, que conta como código inválido
+        Reader leitor = Channels.newReader(entrada, StandardCharsets.US_ASCII.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE), TAMANHO_BUFFER);
+        Writer escritor = Channels.newWriter(saida, StandardCharsets.UTF_8.newEncoder(), TAMANHO_BUFFER);
+        long naoEncontrados = decodificar(leitor, escritor);
+        escritor.flush();
+        return naoEncontrados;
+    }
+
+    /**
+     * Decodifica um pedaço da entrada. Um código pode começar em um pedaço e
+     * terminar no seguinte; chame finalizar() ao fim da entrada.
+     */
+    public void decodificar(CharSequence trecho, Appendable destino) throws IOException {
+        for (int i = 0; i < trecho.length(); i++) {
+            processar(trecho.charAt(i), destino);
+        }
+    }
+
+    /**
+     * Conclui o último código pendente
+     */
+    public void finalizar(Appendable destino) throws IOException {
+        concluirCodigo(destino);
+    }
+
+    /**
+     * Descarta o estado pendente e zera o contador de códigos não encontrados
+     */
+    public void reiniciar() {
+        posicao = 0;
+        comprimento = 0;
+        invalido = false;
+        barra = false;
+        codigosNaoEncontrados = 0;
+        if (arvore != null) {
+            compilada = null;
+        }
+    }
+
+    /**
+     * Retorna quantos códigos não foram encontrados desde o último reinício
+     */
+    public long getCodigosNaoEncontrados() {
+        return codigosNaoEncontrados;
+    }
+
+    private void processar(char c, Appendable destino) throws IOException {
+        if (c == '.') {
+            avancar(2 * posicao + 1);
+        } else if (c == '-') {
+            avancar(2 * posicao + 2);
+        } else if (c == '\n' || c == '\r') {
+            concluirCodigo(destino);
+            destino.append(c);
+        } else if (c <= ' ') {
+            concluirCodigo(destino);
+        } else if (c == '/' && comprimento == 0 && !invalido && !barra) {
+            barra = true;
+        } else {
+            invalido = true;
+        }
+    }
+
+    private void avancar(int novaPosicao) {
+        comprimento++;
+        if (barra || comprimento > ArvoreCompilada.PROFUNDIDADE_MAXIMA) {
+            invalido = true;
+        } else {
+            posicao = novaPosicao;
+        }
+    }
+
+    private void concluirCodigo(Appendable destino) throws IOException {
+        if (barra && !invalido) {
+            destino.append(' ');
+        } else if (comprimento > 0 || invalido) {
+            char letra = invalido ? '\0' : obterCompilada().decodificarSimbolo(comprimento, posicao - ((1 << comprimento) - 1));
+            if (letra == '\0') {
+                codigosNaoEncontrados++;
+                destino.append(CARACTERE_DESCONHECIDO);
+            } else {
+                destino.append(letra);
+                ContadorVisitas contador = arvore != null ? arvore.getContadorVisitas() : null;
+                if (contador != null) {
+                    contador.registrarPosicao(posicao);
+                }
+            }
+        }
+
+        posicao = 0;
+        comprimento = 0;
+        invalido = false;
+        barra = false;
+    }
+
+    private TabelaDecodificacao obterCompilada() {
+        if (compilada == null || (arvore != null && arvore.getVersao() != versao)) {
+            compilada = arvore.compilar();
+            if (compilada == null) {
+                throw new IllegalStateException("Árvore profunda demais para decodificação em fluxo");
+            }
+            versao = arvore.getVersao();
+        }
+        return compilada;
+    }
+}
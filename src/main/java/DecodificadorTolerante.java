@@ -0,0 +1,309 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decodificação tolerante a erros de recepção (ponto a mais, a menos ou trocado)
+ *
+ * Códigos encontrados na árvore são decodificados normalmente. Para um código
+ * desconhecido, a árvore é percorrida calculando a distância de edição (Levenshtein)
+ * entre o código recebido e o caminho até cada nó, uma linha da tabela por nível.
+ * Uma subárvore é descartada assim que o menor valor da linha passa do limite de
+ * distância (branch-and-bound), então só uma pequena parte da árvore é visitada.
+ *
+ * Os buffers da busca são reaproveitados entre chamadas: use uma instância por thread.
+ */
+public class DecodificadorTolerante {
+    // Peso da distância na confiança: cada edição divide o peso do candidato por e^2
+    private static final double PESO_DISTANCIA = 2.0;
+
+    private final ArvoreMorse arvore;
+    private final int distanciaMaxima;
+    private final int maximoCandidatos;
+
+    // Buffers da busca (linha da tabela de distância por nível da árvore)
+    private int[][] linhas = new int[0][];
+    private char[] caminho = new char[0];
+    private List<Candidato> candidatos = new ArrayList<>();
+
+    /**
+     * @param arvore Árvore usada na decodificação
+     * @param distanciaMaxima Maior distância de edição aceita para um candidato
+     * @param maximoCandidatos Quantos candidatos guardar por código desconhecido
+     */
+    public DecodificadorTolerante(ArvoreMorse arvore, int distanciaMaxima, int maximoCandidatos) {
+        this.arvore = arvore;
+        this.distanciaMaxima = distanciaMaxima;
+        this.maximoCandidatos = maximoCandidatos;
+    }
+
+    /**
+     * Decodifica um código Morse no mesmo formato de decodificarPalavra, substituindo
+     * cada código desconhecido pela letra mais próxima (ou '?' se nenhuma estiver
+     * dentro do limite de distância)
+     */
+    public Resultado decodificarPalavra(String codigoMorse) {
+        ArvoreCompilada compilada = arvore.compilar();
+        StringBuilder texto = new StringBuilder();
+        List<Correcao> correcoes = new ArrayList<>();
+        int posicao = 0;
+
+        while (posicao <= codigoMorse.length()) {
+            int separador = codigoMorse.indexOf(' ', posicao);
+            if (separador == -1) {
+                separador = codigoMorse.length();
+            }
+
+            int inicio = posicao;
+            int fim = separador;
+            while (inicio < fim && codigoMorse.charAt(inicio) <= ' ') {
+                inicio++;
+            }
+            while (fim > inicio && codigoMorse.charAt(fim - 1) <= ' ') {
+                fim--;
+            }
+            posicao = separador + 1;
+
+            if (inicio == fim) {
+                continue;
+            }
+            if (fim - inicio == 1 && codigoMorse.charAt(inicio) == '/') {
+                texto.append(' ');
+                continue;
+            }
+
+            char letra = compilada != null ? compilada.decodificarCodigo(codigoMorse, inicio, fim) : '\0';
+            if (letra != '\0') {
+                texto.append(letra);
+                continue;
+            }
+
+            String recebido = codigoMorse.substring(inicio, fim);
+            List<Candidato> encontrados = buscarCandidatos(recebido);
+            texto.append(encontrados.isEmpty() ? DecodificadorStream.CARACTERE_DESCONHECIDO : encontrados.get(0).getLetra());
+            correcoes.add(new Correcao(inicio, recebido, encontrados));
+        }
+
+        return new Resultado(texto.toString(), correcoes);
+    }
+
+    /**
+     * Procura as letras cujo código está a no máximo distanciaMaxima edições do recebido
+     * @param recebido Código recebido (pontos e traços; outros caracteres contam como erro)
+     * @return Candidatos em ordem de distância (a confiança soma 1 entre eles)
+     */
+    public List<Candidato> buscarCandidatos(String recebido) {
+        int tamanho = recebido.length();
+        int profundidadeMaxima = tamanho + distanciaMaxima;
+        prepararBuffers(profundidadeMaxima, tamanho);
+
+        // Linha 0: distância do prefixo vazio a cada prefixo do código recebido
+        for (int j = 0; j <= tamanho; j++) {
+            linhas[0][j] = j;
+        }
+
+        candidatos.clear();
+        No raiz = arvore.getRaiz();
+        if (raiz != null) {
+            visitar(raiz.getEsquerda(), '.', 1, recebido, profundidadeMaxima);
+            visitar(raiz.getDireita(), '-', 1, recebido, profundidadeMaxima);
+        }
+
+        Collections.sort(candidatos);
+        List<Candidato> resultado = new ArrayList<>(candidatos.subList(0, Math.min(maximoCandidatos, candidatos.size())));
+
+        double soma = 0;
+        for (Candidato candidato : resultado) {
+            soma += Math.exp(-PESO_DISTANCIA * candidato.distancia);
+        }
+        for (Candidato candidato : resultado) {
+            candidato.confianca = Math.exp(-PESO_DISTANCIA * candidato.distancia) / soma;
+        }
+        return resultado;
+    }
+
+    private void visitar(No atual, char simbolo, int nivel, String recebido, int profundidadeMaxima) {
+        if (atual == null || nivel > profundidadeMaxima) {
+            return;
+        }
+
+        caminho[nivel - 1] = simbolo;
+        int[] anterior = linhas[nivel - 1];
+        int[] linha = linhas[nivel];
+        int tamanho = recebido.length();
+        linha[0] = nivel;
+        int menor = linha[0];
+
+        for (int j = 1; j <= tamanho; j++) {
+            int custoTroca = recebido.charAt(j - 1) == simbolo ? 0 : 1;
+            int valor = Math.min(anterior[j - 1] + custoTroca, Math.min(anterior[j] + 1, linha[j - 1] + 1));
+            linha[j] = valor;
+            menor = Math.min(menor, valor);
+        }
+
+        // Nenhum prefixo mais longo deste caminho pode ficar dentro do limite
+        if (menor > distanciaMaxima) {
+            return;
+        }
+
+        if (!atual.isVazio() && linha[tamanho] <= distanciaMaxima) {
+            candidatos.add(new Candidato(atual.getLetra(), new String(caminho, 0, nivel),
+                    linha[tamanho], posicoesErro(nivel, recebido)));
+        }
+
+        visitar(atual.getEsquerda(), '.', nivel + 1, recebido, profundidadeMaxima);
+        visitar(atual.getDireita(), '-', nivel + 1, recebido, profundidadeMaxima);
+    }
+
+    /**
+     * Refaz o alinhamento pela tabela e devolve as posições do código recebido
+     * onde houve troca, símbolo a mais ou símbolo faltando (antes da posição)
+     */
+    private int[] posicoesErro(int nivel, String recebido) {
+        int[] posicoes = new int[linhas[nivel][recebido.length()]];
+        int quantidade = 0;
+        int i = nivel;
+        int j = recebido.length();
+
+        while (i > 0 || j > 0) {
+            int atual = linhas[i][j];
+            if (i > 0 && j > 0 && linhas[i - 1][j - 1] + (recebido.charAt(j - 1) == caminho[i - 1] ? 0 : 1) == atual) {
+                if (linhas[i - 1][j - 1] != atual) {
+                    posicoes[quantidade++] = j - 1; // Símbolo trocado
+                }
+                i--;
+                j--;
+            } else if (j > 0 && linhas[i][j - 1] + 1 == atual) {
+                posicoes[quantidade++] = j - 1; // Símbolo a mais no recebido
+                j--;
+            } else {
+                posicoes[quantidade++] = j;     // Símbolo faltando no recebido
+                i--;
+            }
+        }
+
+        int[] resultado = Arrays.copyOf(posicoes, quantidade);
+        Arrays.sort(resultado);
+        return resultado;
+    }
+
+    private void prepararBuffers(int profundidadeMaxima, int tamanho) {
+        if (linhas.length < profundidadeMaxima + 1 || linhas[0].length < tamanho + 1) {
+            int niveis = Math.max(linhas.length, profundidadeMaxima + 1);
+            int colunas = Math.max(linhas.length > 0 ? linhas[0].length : 0, tamanho + 1);
+            linhas = new int[niveis][colunas];
+            caminho = new char[niveis];
+        }
+    }
+
+    /**
+     * Letra candidata para um código desconhecido
+     */
+    public static class Candidato implements Comparable<Candidato> {
+        private final char letra;
+        private final String codigo;
+        private final int distancia;
+        private final int[] posicoesErro;
+        private double confianca;
+
+        Candidato(char letra, String codigo, int distancia, int[] posicoesErro) {
+            this.letra = letra;
+            this.codigo = codigo;
+            this.distancia = distancia;
+            this.posicoesErro = posicoesErro;
+        }
+
+        public char getLetra() {
+            return letra;
+        }
+
+        public String getCodigo() {
+            return codigo;
+        }
+
+        public int getDistancia() {
+            return distancia;
+        }
+
+        /**
+         * Posições (no código recebido) dos símbolos corrigidos
+         */
+        public int[] getPosicoesErro() {
+            return posicoesErro.clone();
+        }
+
+        /**
+         * Confiança entre 0 e 1, relativa aos demais candidatos do mesmo código
+         */
+        public double getConfianca() {
+            return confianca;
+        }
+
+        @Override
+        public int compareTo(Candidato outro) {
+            if (distancia != outro.distancia) {
+                return Integer.compare(distancia, outro.distancia);
+            }
+            // Em empate, prefere códigos mais curtos (letras mais frequentes)
+            return Integer.compare(codigo.length(), outro.codigo.length());
+        }
+
+        @Override
+        public String toString() {
+            return letra + " (" + codigo + ", distância " + distancia
+                    + String.format(", confiança %.2f)", confianca);
+        }
+    }
+
+    /**
+     * Código desconhecido e os candidatos encontrados para ele
+     */
+    public static class Correcao {
+        private final int posicao;
+        private final String codigoRecebido;
+        private final List<Candidato> candidatos;
+
+        Correcao(int posicao, String codigoRecebido, List<Candidato> candidatos) {
+            this.posicao = posicao;
+            this.codigoRecebido = codigoRecebido;
+            this.candidatos = Collections.unmodifiableList(candidatos);
+        }
+
+        /**
+         * Posição do código na entrada original
+         */
+        public int getPosicao() {
+            return posicao;
+        }
+
+        public String getCodigoRecebido() {
+            return codigoRecebido;
+        }
+
+        public List<Candidato> getCandidatos() {
+            return candidatos;
+        }
+    }
+
+    /**
+     * Texto decodificado e as correções aplicadas
+     */
+    public static class Resultado {
+        private final String texto;
+        private final List<Correcao> correcoes;
+
+        Resultado(String texto, List<Correcao> correcoes) {
+            this.texto = texto;
+            this.correcoes = Collections.unmodifiableList(correcoes);
+        }
+
+        public String getTexto() {
+            return texto;
+        }
+
+        public List<Correcao> getCorrecoes() {
+            return correcoes;
+        }
+    }
+}
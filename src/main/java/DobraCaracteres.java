@@ -0,0 +1,120 @@
+import java.text.Normalizer;
+
+/**
+ * Tabelas de dobra de caracteres para a codificação, calculadas uma vez e
+ * independentes da localidade padrão (em turco, "i".toUpperCase() vira 'İ')
+ *
+ * Para cada caractere do plano básico guarda:
+ *   - a maiúscula (Character.toUpperCase, que não depende da localidade);
+ *   - a decomposição canônica (NFD) em maiúsculas, quando existe ("Ç" -> "C" + cedilha);
+ *   - a letra base da decomposição de compatibilidade (NFKD), quando é letra ou
+ *     dígito ASCII diferente do próprio caractere ("Ã" -> 'A', "Ａ" -> 'A').
+ *
+ * As tabelas são paginadas (256 caracteres por página) e só as páginas com algum
+ * caractere alterado existem, então a consulta é uma leitura de array sem alocação.
+ * As tabelas de normalização só são montadas na primeira letra sem código.
+ */
+public final class DobraCaracteres {
+    private static final char[][] MAIUSCULAS = new char[256][];  // null = página sem alteração
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char maiuscula = Character.toUpperCase((char) c);
+            if (maiuscula != c) {
+                char[] pagina = MAIUSCULAS[c >>> 8];
+                if (pagina == null) {
+                    // Página começa como identidade
+                    pagina = new char[256];
+                    for (int i = 0; i < 256; i++) {
+                        pagina[i] = (char) ((c & 0xFF00) | i);
+                    }
+                    MAIUSCULAS[c >>> 8] = pagina;
+                }
+                pagina[c & 0xFF] = maiuscula;
+            }
+        }
+    }
+
+    /**
+     * Decomposições e letras base, carregadas na primeira consulta
+     */
+    private static final class Normalizacao {
+        static final char[][] BASES = new char[256][];             // '\0' = sem letra base
+        static final String[][] DECOMPOSICOES = new String[256][];
+
+        static {
+            for (int c = 0; c <= Character.MAX_VALUE; c++) {
+                if (!normalizavel(c)) {
+                    continue;
+                }
+                String texto = String.valueOf((char) c);
+                if (Normalizer.isNormalized(texto, Normalizer.Form.NFKD)) {
+                    continue;  // Também já está em NFD
+                }
+
+                String nfd = Normalizer.normalize(texto, Normalizer.Form.NFD);
+                if (nfd.length() > 1) {
+                    StringBuilder decomposta = new StringBuilder(nfd.length());
+                    for (int i = 0; i < nfd.length(); i++) {
+                        decomposta.append(maiuscula(nfd.charAt(i)));
+                    }
+                    String[] pagina = DECOMPOSICOES[c >>> 8];
+                    if (pagina == null) {
+                        pagina = new String[256];
+                        DECOMPOSICOES[c >>> 8] = pagina;
+                    }
+                    pagina[c & 0xFF] = decomposta.toString().intern();
+                }
+
+                String nfkd = Normalizer.normalize(texto, Normalizer.Form.NFKD);
+                char base = maiuscula(nfkd.charAt(0));
+                if (base < 0x80 && base != maiuscula((char) c) && Character.isLetterOrDigit(base)) {
+                    char[] pagina = BASES[c >>> 8];
+                    if (pagina == null) {
+                        pagina = new char[256];
+                        BASES[c >>> 8] = pagina;
+                    }
+                    pagina[c & 0xFF] = base;
+                }
+            }
+        }
+
+        /**
+         * Faixas em que a normalização interessa à codificação: alfabetos latino, grego e
+         * cirílico com símbolos (até os alfanuméricos circulados), kana e formas de largura
+         * total/meia largura. Hangul e ideogramas ficam de fora (decompõem-se em jamos ou
+         * não se decompõem) e deixariam a montagem várias vezes mais lenta.
+         */
+        private static boolean normalizavel(int c) {
+            return (c >= 0x80 && c < 0x2500) || (c >= 0x3000 && c < 0x3100) || (c >= 0xFF00 && c < 0xFFF0);
+        }
+    }
+
+    private DobraCaracteres() {
+    }
+
+    /**
+     * Maiúscula do caractere, sem depender da localidade
+     */
+    public static char maiuscula(char letra) {
+        char[] pagina = MAIUSCULAS[letra >>> 8];
+        return pagina == null ? letra : pagina[letra & 0xFF];
+    }
+
+    /**
+     * Decomposição canônica em maiúsculas (ex: "Ç" -> "C" + U+0327), ou null se o
+     * caractere não se decompõe
+     */
+    public static String decomposicao(char letra) {
+        String[] pagina = Normalizacao.DECOMPOSICOES[letra >>> 8];
+        return pagina == null ? null : pagina[letra & 0xFF];
+    }
+
+    /**
+     * Letra ou dígito ASCII de base (ex: 'Ã' -> 'A'), ou '\0' se não houver
+     */
+    public static char base(char letra) {
+        char[] pagina = Normalizacao.BASES[letra >>> 8];
+        return pagina == null ? '\0' : pagina[letra & 0xFF];
+    }
+}
@@ -0,0 +1,27 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evento JFR de uma chamada de codificação ou decodificação
+ * Criado apenas com as métricas ativas (-Dmorse.metricas=true).
+ */
+@Name("morse.Operacao")
+@Label("Operação Morse")
+@Category("Morse")
+@Description("Chamada de codificarPalavra ou decodificarPalavra")
+public class EventoMorse extends Event {
+    @Label("Operação")
+    String operacao;
+
+    @Label("Tamanho da entrada")
+    int tamanhoEntrada;
+
+    @Label("Tamanho da saída")
+    int tamanhoSaida;
+
+    @Label("Itens desconhecidos")
+    int desconhecidos;
+}
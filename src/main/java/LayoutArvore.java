@@ -0,0 +1,385 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Posições dos nós da árvore para desenho, no estilo Reingold–Tilford
+ *
+ * Cada subárvore é posicionada de baixo para cima guardando seu contorno (menor e
+ * maior x em cada nível). Os dois filhos de um nó são afastados apenas o necessário
+ * para que os contornos não se sobreponham, e o pai fica centralizado entre eles.
+ * Assim nenhum nó se sobrepõe, qualquer que seja a profundidade, e a largura cresce
+ * com a quantidade de nós e não com 2^profundidade.
+ *
+ * O layout é imutável: é calculado fora da thread do JavaFX a partir de uma cópia da
+ * árvore e pode ser consultado por retângulo (só os nós visíveis são desenhados).
+ */
+public class LayoutArvore {
+    public static final double SEPARACAO = 30;    // Distância mínima entre nós vizinhos
+    public static final double ALTURA_NIVEL = 50;
+    public static final double RAIO = 10;
+    public static final double MARGEM = 30;
+
+    private final long versao;
+    private final int quantidade;
+    private final char[] letras;
+    private final boolean[] vazios;
+    private final int[] pais;
+    private final int[] profundidades;
+    private final String[] codigos;
+    private final int[] posicoesHeap;   // Posição no heap implícito (-1 se profunda demais)
+    private final double[] xs;
+    private final int[][] niveis;       // Índices dos nós de cada nível, em ordem de x
+    private final double[] alcanceArestas; // Maior distância horizontal pai-filho por nível
+    private final double largura;
+    private final double altura;
+
+    // Usados só durante o cálculo
+    private int[] esquerdas;
+    private int[] direitas;
+    private double[] deslocamentos;
+
+    private LayoutArvore(long versao, int quantidade) {
+        this.versao = versao;
+        this.quantidade = quantidade;
+        this.letras = new char[quantidade];
+        this.vazios = new boolean[quantidade];
+        this.pais = new int[quantidade];
+        this.profundidades = new int[quantidade];
+        this.codigos = new String[quantidade];
+        this.posicoesHeap = new int[quantidade];
+        this.xs = new double[quantidade];
+        this.esquerdas = new int[quantidade];
+        this.direitas = new int[quantidade];
+        this.deslocamentos = new double[quantidade];
+
+        // As estruturas por nível são montadas depois, em uma nova instância
+        this.niveis = null;
+        this.alcanceArestas = null;
+        this.largura = 0;
+        this.altura = 0;
+    }
+
+    private LayoutArvore(LayoutArvore base, int[][] niveis, double[] alcanceArestas, double largura, double altura) {
+        this.versao = base.versao;
+        this.quantidade = base.quantidade;
+        this.letras = base.letras;
+        this.vazios = base.vazios;
+        this.pais = base.pais;
+        this.profundidades = base.profundidades;
+        this.codigos = base.codigos;
+        this.posicoesHeap = base.posicoesHeap;
+        this.xs = base.xs;
+        this.niveis = niveis;
+        this.alcanceArestas = alcanceArestas;
+        this.largura = largura;
+        this.altura = altura;
+    }
+
+    /**
+     * Calcula o layout de uma árvore (que não deve ser alterada durante o cálculo)
+     */
+    public static LayoutArvore calcular(ArvoreMorse arvore) {
+        No raiz = arvore.getRaiz();
+        LayoutArvore base = new LayoutArvore(arvore.getVersao(), raiz == null ? 0 : arvore.contarNos());
+        if (base.quantidade == 0) {
+            return new LayoutArvore(base, new int[0][], new double[0], 2 * MARGEM, 2 * MARGEM);
+        }
+
+        base.achatar(raiz, -1, 0, "", 0, 0);
+        base.posicionar(0);
+
+        // Posições absolutas: cada nó vem depois do pai na ordem de achatar()
+        double menorX = 0;
+        double maiorX = 0;
+        base.xs[0] = 0;
+        for (int i = 1; i < base.quantidade; i++) {
+            base.xs[i] = base.xs[base.pais[i]] + base.deslocamentos[i];
+            menorX = Math.min(menorX, base.xs[i]);
+            maiorX = Math.max(maiorX, base.xs[i]);
+        }
+
+        int profundidadeMaxima = 0;
+        for (int i = 0; i < base.quantidade; i++) {
+            base.xs[i] += MARGEM - menorX;
+            profundidadeMaxima = Math.max(profundidadeMaxima, base.profundidades[i]);
+        }
+
+        // Índices por nível, ordenados por x, para a consulta por retângulo
+        int[] tamanhos = new int[profundidadeMaxima + 1];
+        for (int i = 0; i < base.quantidade; i++) {
+            tamanhos[base.profundidades[i]]++;
+        }
+        int[][] niveis = new int[profundidadeMaxima + 1][];
+        for (int d = 0; d <= profundidadeMaxima; d++) {
+            niveis[d] = new int[tamanhos[d]];
+            tamanhos[d] = 0;
+        }
+        double[] alcance = new double[profundidadeMaxima + 1];
+        for (int i = 0; i < base.quantidade; i++) {
+            int d = base.profundidades[i];
+            niveis[d][tamanhos[d]++] = i;
+            if (i > 0) {
+                alcance[d] = Math.max(alcance[d], Math.abs(base.xs[i] - base.xs[base.pais[i]]));
+            }
+        }
+        for (int[] nivel : niveis) {
+            ordenarPorX(nivel, base.xs);
+        }
+
+        base.esquerdas = null;
+        base.direitas = null;
+        base.deslocamentos = null;
+        return new LayoutArvore(base, niveis, alcance, maiorX - menorX + 2 * MARGEM,
+                profundidadeMaxima * ALTURA_NIVEL + 2 * MARGEM);
+    }
+
+    /**
+     * Numera os nós em pré-ordem
+     * @return Próximo índice livre
+     */
+    private int achatar(No atual, int pai, int profundidade, String codigo, int posicaoHeap, int indice) {
+        int proprio = indice++;
+        posicoesHeap[proprio] = posicaoHeap;
+        letras[proprio] = atual.isVazio() ? '\0' : atual.getLetra();
+        vazios[proprio] = atual.isVazio();
+        pais[proprio] = pai;
+        profundidades[proprio] = profundidade;
+        codigos[proprio] = codigo;
+        esquerdas[proprio] = -1;
+        direitas[proprio] = -1;
+
+        if (atual.getEsquerda() != null) {
+            esquerdas[proprio] = indice;
+            indice = achatar(atual.getEsquerda(), proprio, profundidade + 1, codigo + ".",
+                    posicaoFilho(posicaoHeap, profundidade, 1), indice);
+        }
+        if (atual.getDireita() != null) {
+            direitas[proprio] = indice;
+            indice = achatar(atual.getDireita(), proprio, profundidade + 1, codigo + "-",
+                    posicaoFilho(posicaoHeap, profundidade, 2), indice);
+        }
+        return indice;
+    }
+
+    private static int posicaoFilho(int posicaoHeap, int profundidade, int lado) {
+        if (posicaoHeap < 0 || profundidade + 1 > ArvoreCompilada.PROFUNDIDADE_MAXIMA) {
+            return -1;
+        }
+        return 2 * posicaoHeap + lado;
+    }
+
+    /**
+     * Posiciona os filhos da subárvore relativos ao pai (em deslocamentos)
+     * @return Contorno da subárvore: {menor x por nível, maior x por nível}, relativo ao nó
+     */
+    private double[][] posicionar(int no) {
+        int esquerda = esquerdas[no];
+        int direita = direitas[no];
+
+        if (esquerda < 0 && direita < 0) {
+            return new double[][] {{0}, {0}};
+        }
+
+        if (esquerda < 0 || direita < 0) {
+            // Filho único: fica meio espaço para o lado do seu símbolo
+            int filho = esquerda >= 0 ? esquerda : direita;
+            double deslocamento = esquerda >= 0 ? -SEPARACAO / 2 : SEPARACAO / 2;
+            deslocamentos[filho] = deslocamento;
+            return juntarContornos(posicionar(filho), deslocamento, null, 0);
+        }
+
+        double[][] contornoEsquerda = posicionar(esquerda);
+        double[][] contornoDireita = posicionar(direita);
+
+        // Menor distância entre os filhos que separa os contornos em todos os níveis
+        double distancia = SEPARACAO;
+        int comuns = Math.min(contornoEsquerda[0].length, contornoDireita[0].length);
+        for (int k = 0; k < comuns; k++) {
+            distancia = Math.max(distancia, contornoEsquerda[1][k] - contornoDireita[0][k] + SEPARACAO);
+        }
+
+        deslocamentos[esquerda] = -distancia / 2;
+        deslocamentos[direita] = distancia / 2;
+        return juntarContornos(contornoEsquerda, -distancia / 2, contornoDireita, distancia / 2);
+    }
+
+    private static double[][] juntarContornos(double[][] a, double deslocamentoA, double[][] b, double deslocamentoB) {
+        int niveisA = a[0].length;
+        int niveisB = b == null ? 0 : b[0].length;
+        int niveis = 1 + Math.max(niveisA, niveisB);
+        double[] menores = new double[niveis];
+        double[] maiores = new double[niveis];
+
+        for (int k = 1; k < niveis; k++) {
+            double menor = Double.POSITIVE_INFINITY;
+            double maior = Double.NEGATIVE_INFINITY;
+            if (k - 1 < niveisA) {
+                menor = a[0][k - 1] + deslocamentoA;
+                maior = a[1][k - 1] + deslocamentoA;
+            }
+            if (k - 1 < niveisB) {
+                menor = Math.min(menor, b[0][k - 1] + deslocamentoB);
+                maior = Math.max(maior, b[1][k - 1] + deslocamentoB);
+            }
+            menores[k] = menor;
+            maiores[k] = maior;
+        }
+        return new double[][] {menores, maiores};
+    }
+
+    private static void ordenarPorX(int[] indices, double[] xs) {
+        long[] chaves = new long[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            // x é sempre positivo: a ordem dos bits do double é a ordem numérica
+            chaves[i] = Double.doubleToLongBits(xs[indices[i]]);
+        }
+        Integer[] ordem = new Integer[indices.length];
+        for (int i = 0; i < ordem.length; i++) {
+            ordem[i] = i;
+        }
+        Arrays.sort(ordem, (p, q) -> Long.compare(chaves[p], chaves[q]));
+        int[] copia = indices.clone();
+        for (int i = 0; i < ordem.length; i++) {
+            indices[i] = copia[ordem[i]];
+        }
+    }
+
+    /**
+     * Visita os nós cujo círculo ou aresta até o pai pode cruzar o retângulo
+     * (coordenadas do layout). Só os níveis e as faixas de x envolvidos são percorridos.
+     */
+    public void visitarRetangulo(double x0, double y0, double x1, double y1, IntConsumer visitante) {
+        if (niveis.length == 0) {
+            return;
+        }
+
+        // Um nível abaixo do retângulo ainda pode ter arestas que o cruzam
+        int primeiro = Math.max(0, (int) Math.floor((y0 - RAIO - MARGEM) / ALTURA_NIVEL));
+        int ultimo = Math.min(niveis.length - 1, (int) Math.ceil((y1 + RAIO - MARGEM) / ALTURA_NIVEL) + 1);
+
+        for (int d = primeiro; d <= ultimo; d++) {
+            int[] nivel = niveis[d];
+            double folga = RAIO + alcanceArestas[d];
+            int i = primeiroComXMaiorOuIgual(nivel, x0 - folga);
+            for (; i < nivel.length && xs[nivel[i]] <= x1 + folga; i++) {
+                visitante.accept(nivel[i]);
+            }
+        }
+    }
+
+    private int primeiroComXMaiorOuIgual(int[] nivel, double x) {
+        int baixo = 0;
+        int alto = nivel.length;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (xs[nivel[meio]] < x) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    /**
+     * Compara com um layout anterior e retorna o retângulo que contém os nós (e suas
+     * arestas) que mudaram, surgiram ou sumiram
+     * @return {x0, y0, x1, y1}, ou null se nada mudou
+     */
+    public double[] regiaoAlterada(LayoutArvore anterior) {
+        Map<String, Integer> indiceAnterior = new HashMap<>(anterior.quantidade * 2);
+        for (int i = 0; i < anterior.quantidade; i++) {
+            indiceAnterior.put(anterior.codigos[i], i);
+        }
+
+        double[] regiao = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+        for (int i = 0; i < quantidade; i++) {
+            Integer j = indiceAnterior.remove(codigos[i]);
+            if (j != null && anterior.xs[j] == xs[i] && anterior.letras[j] == letras[i]
+                    && anterior.vazios[j] == vazios[i]
+                    && (i == 0 || anterior.xs[anterior.pais[j]] == xs[pais[i]])) {
+                continue;
+            }
+            incluirNo(regiao, this, i);
+            if (j != null) {
+                incluirNo(regiao, anterior, j);
+            }
+        }
+        for (int j : indiceAnterior.values()) {
+            incluirNo(regiao, anterior, j);
+        }
+
+        return regiao[0] == Double.POSITIVE_INFINITY ? null : regiao;
+    }
+
+    private static void incluirNo(double[] regiao, LayoutArvore layout, int i) {
+        incluirPonto(regiao, layout.getX(i), layout.getY(i));
+        if (layout.pais[i] >= 0) {
+            incluirPonto(regiao, layout.getX(layout.pais[i]), layout.getY(layout.pais[i]));
+        }
+    }
+
+    private static void incluirPonto(double[] regiao, double x, double y) {
+        regiao[0] = Math.min(regiao[0], x - RAIO);
+        regiao[1] = Math.min(regiao[1], y - RAIO);
+        regiao[2] = Math.max(regiao[2], x + RAIO);
+        regiao[3] = Math.max(regiao[3], y + RAIO);
+    }
+
+    public long getVersao() {
+        return versao;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public double getX(int no) {
+        return xs[no];
+    }
+
+    public double getY(int no) {
+        return MARGEM + profundidades[no] * ALTURA_NIVEL;
+    }
+
+    /**
+     * @return Índice do pai, ou -1 para a raiz
+     */
+    public int getPai(int no) {
+        return pais[no];
+    }
+
+    public char getLetra(int no) {
+        return letras[no];
+    }
+
+    public boolean isVazio(int no) {
+        return vazios[no];
+    }
+
+    /**
+     * @return Código Morse do caminho até o nó ("" para a raiz)
+     */
+    public String getCodigo(int no) {
+        return codigos[no];
+    }
+
+    /**
+     * @return Posição do nó no heap implícito, ou -1 se ele for profundo demais
+     */
+    public int getPosicaoHeap(int no) {
+        return posicoesHeap[no];
+    }
+
+    public double getLargura() {
+        return largura;
+    }
+
+    public double getAltura() {
+        return altura;
+    }
+}
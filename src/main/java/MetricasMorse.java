@@ -0,0 +1,223 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Métricas de uso da árvore Morse: contadores, histogramas de latência e eventos JFR
+ *
+ * Ativadas com -Dmorse.metricas=true. O flag é static final, então com as métricas
+ * desligadas o JIT elimina os trechos de instrumentação e o custo é zero.
+ * Os contadores são LongAdder, sem disputa entre threads.
+ *
+ * Os histogramas têm um balde por potência de 2 de nanossegundos:
+ * o balde i conta as chamadas que levaram entre 2^i e 2^(i+1) - 1 ns.
+ */
+public class MetricasMorse implements MetricasMorseMBean {
+    public static final boolean ATIVO = Boolean.getBoolean("morse.metricas");
+
+    private static final int BALDES_HISTOGRAMA = 40;
+
+    private static final LongAdder buscas = new LongAdder();
+    private static final LongAdder buscasEncontradas = new LongAdder();
+    private static final LongAdder codificacoes = new LongAdder();
+    private static final LongAdder letrasDesconhecidas = new LongAdder();
+    private static final LongAdder decodificacoes = new LongAdder();
+    private static final LongAdder codigosDecodificados = new LongAdder();
+    private static final LongAdder codigosDesconhecidos = new LongAdder();
+    private static final LongAdder[] histogramaCodificacao = criarHistograma();
+    private static final LongAdder[] histogramaDecodificacao = criarHistograma();
+
+    private final Supplier<ArvoreMorse> arvore;
+
+    private MetricasMorse(Supplier<ArvoreMorse> arvore) {
+        this.arvore = arvore;
+    }
+
+    /**
+     * Registra o MBean "com.morse:type=Metricas,name=NOME" com as métricas e o
+     * tamanho da árvore fornecida (consultada a cada leitura do atributo)
+     */
+    public static void registrarMBean(String nome, Supplier<ArvoreMorse> arvore) {
+        try {
+            ObjectName objeto = new ObjectName("com.morse:type=Metricas,name=" + nome);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objeto)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricasMorse(arvore), objeto);
+            }
+        } catch (JMException e) {
+            System.err.println("Não foi possível registrar o MBean de métricas: " + e.getMessage());
+        }
+    }
+
+    static void registrarBusca(boolean encontrada) {
+        buscas.increment();
+        if (encontrada) {
+            buscasEncontradas.increment();
+        }
+    }
+
+    /**
+     * Registra buscas bem-sucedidas de uma palavra inteira (atendida pelo cache de palavras)
+     */
+    static void registrarBuscas(int encontradas) {
+        buscas.add(encontradas);
+        buscasEncontradas.add(encontradas);
+    }
+
+    static void registrarLetraDesconhecida() {
+        letrasDesconhecidas.increment();
+    }
+
+    static void registrarCodigo(boolean encontrado) {
+        if (encontrado) {
+            codigosDecodificados.increment();
+        } else {
+            codigosDesconhecidos.increment();
+        }
+    }
+
+    /**
+     * Inicia a medição de uma operação (só deve ser chamado com ATIVO)
+     */
+    static EventoMorse iniciar(String operacao) {
+        EventoMorse evento = new EventoMorse();
+        evento.operacao = operacao;
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Conclui a medição iniciada por iniciar()
+     * @param inicioNanos Valor de System.nanoTime() no início da operação
+     */
+    static void concluir(EventoMorse evento, long inicioNanos, boolean codificacao,
+                         int tamanhoEntrada, int tamanhoSaida, int desconhecidos) {
+        long duracao = System.nanoTime() - inicioNanos;
+        if (codificacao) {
+            codificacoes.increment();
+            histogramaCodificacao[balde(duracao)].increment();
+        } else {
+            decodificacoes.increment();
+            histogramaDecodificacao[balde(duracao)].increment();
+        }
+
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.tamanhoEntrada = tamanhoEntrada;
+            evento.tamanhoSaida = tamanhoSaida;
+            evento.desconhecidos = desconhecidos;
+            evento.commit();
+        }
+    }
+
+    private static int balde(long nanos) {
+        int balde = 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1));
+        return Math.min(balde, BALDES_HISTOGRAMA - 1);
+    }
+
+    private static LongAdder[] criarHistograma() {
+        LongAdder[] histograma = new LongAdder[BALDES_HISTOGRAMA];
+        for (int i = 0; i < histograma.length; i++) {
+            histograma[i] = new LongAdder();
+        }
+        return histograma;
+    }
+
+    private static long[] copiar(LongAdder[] histograma) {
+        long[] valores = new long[histograma.length];
+        for (int i = 0; i < histograma.length; i++) {
+            valores[i] = histograma[i].sum();
+        }
+        return valores;
+    }
+
+    @Override
+    public int getNumeroNos() {
+        return arvore.get().contarNos();
+    }
+
+    @Override
+    public int getProfundidade() {
+        return arvore.get().calcularProfundidade();
+    }
+
+    @Override
+    public int getNosRemovidos() {
+        return arvore.get().contarNosRemovidos();
+    }
+
+    @Override
+    public long getBuscas() {
+        return buscas.sum();
+    }
+
+    @Override
+    public long getBuscasEncontradas() {
+        return buscasEncontradas.sum();
+    }
+
+    @Override
+    public long getBuscasFalhas() {
+        return buscas.sum() - buscasEncontradas.sum();
+    }
+
+    @Override
+    public long getCodificacoes() {
+        return codificacoes.sum();
+    }
+
+    @Override
+    public long getLetrasDesconhecidas() {
+        return letrasDesconhecidas.sum();
+    }
+
+    @Override
+    public long getDecodificacoes() {
+        return decodificacoes.sum();
+    }
+
+    @Override
+    public long getCodigosDecodificados() {
+        return codigosDecodificados.sum();
+    }
+
+    @Override
+    public long getCodigosDesconhecidos() {
+        return codigosDesconhecidos.sum();
+    }
+
+    /**
+     * Taxa de acerto do cache de palavras da versão atual da árvore (0 se desativado)
+     */
+    @Override
+    public double getTaxaAcertoCache() {
+        CacheCodificacao cache = arvore.get().getCacheCodificacao();
+        return cache == null ? 0 : cache.getTaxaAcerto();
+    }
+
+    @Override
+    public long[] getHistogramaCodificacaoNanos() {
+        return copiar(histogramaCodificacao);
+    }
+
+    @Override
+    public long[] getHistogramaDecodificacaoNanos() {
+        return copiar(histogramaDecodificacao);
+    }
+
+    @Override
+    public void zerar() {
+        buscas.reset();
+        buscasEncontradas.reset();
+        codificacoes.reset();
+        letrasDesconhecidas.reset();
+        decodificacoes.reset();
+        codigosDecodificados.reset();
+        codigosDesconhecidos.reset();
+        for (int i = 0; i < BALDES_HISTOGRAMA; i++) {
+            histogramaCodificacao[i].reset();
+            histogramaDecodificacao[i].reset();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Interface JMX das métricas da árvore Morse
+ */
+public interface MetricasMorseMBean {
+    int getNumeroNos();
+
+    int getProfundidade();
+
+    int getNosRemovidos();
+
+    long getBuscas();
+
+    long getBuscasEncontradas();
+
+    long getBuscasFalhas();
+
+    long getCodificacoes();
+
+    long getLetrasDesconhecidas();
+
+    long getDecodificacoes();
+
+    long getCodigosDecodificados();
+
+    long getCodigosDesconhecidos();
+
+    double getTaxaAcertoCache();
+
+    long[] getHistogramaCodificacaoNanos();
+
+    long[] getHistogramaDecodificacaoNanos();
+
+    void zerar();
+}
@@ -6,6 +6,7 @@
 public class No {
     private char letra;
     private boolean vazio; // Indica se o nó está vazio (letra removida)
+    private boolean removida; // Nó ficou vazio por remoção e foi mantido por ter filhos
     private No esquerda; // Filho esquerdo (ponto)
     private No direita;   // Filho direito (traço)
     
@@ -30,6 +31,7 @@ public class No {
     public void setLetra(char letra) {
         this.letra = letra;
         this.vazio = false;
+        this.removida = false;
     }
     
     public boolean isVazio() {
@@ -38,11 +40,16 @@ public class No {
     
     public void setVazio(boolean vazio) {
         this.vazio = vazio;
+        this.removida = vazio;
         if (vazio) {
             this.letra = '\0';
         }
     }
     
+    public boolean isRemovida() {
+        return removida;
+    }
+    
     public No getEsquerda() {
         return esquerda;
     }
@@ -0,0 +1,10 @@
+/**
+ * Recebe as letras que não possuem código na árvore durante a codificação
+ */
+public interface OuvinteLetraDesconhecida {
+    /**
+     * @param letra Letra (em maiúscula) sem código Morse na árvore
+     * @param posicao Posição da letra na entrada, contada desde o último reinício
+     */
+    void letraDesconhecida(char letra, long posicao);
+}
@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Codificação e decodificação paralelas de entradas grandes
+ * A entrada é dividida em trechos alinhados ao separador de palavras, cada trecho
+ * é processado em um ForkJoinPool e os resultados são unidos na ordem original.
+ * A saída é idêntica à de codificarPalavra/decodificarPalavra da árvore.
+ *
+ * A árvore é apenas lida durante o processamento; não a altere enquanto isso.
+ */
+public class ProcessadorParalelo {
+    // Abaixo deste tamanho a entrada é processada sem dividir
+    private static final int TAMANHO_MINIMO_TRECHO = 16 * 1024;
+    // Trechos por thread, para equilibrar a carga
+    private static final int TRECHOS_POR_THREAD = 4;
+
+    private final ArvoreMorse arvore;
+    private final ForkJoinPool pool;
+
+    public ProcessadorParalelo(ArvoreMorse arvore) {
+        this(arvore, ForkJoinPool.commonPool());
+    }
+
+    public ProcessadorParalelo(ArvoreMorse arvore, ForkJoinPool pool) {
+        this.arvore = arvore;
+        this.pool = pool;
+    }
+
+    /**
+     * Codifica um texto em paralelo
+     * @return Código Morse, ou a mesma mensagem de erro de ArvoreMorse.codificarPalavra
+     */
+    public String codificarPalavra(String texto) {
+        List<Trecho> trechos = dividir(texto, true);
+        pool.invoke(new Processamento(trechos, 0, trechos.size(), texto, true));
+
+        StringBuilder resultado = new StringBuilder();
+        StringBuilder naoEncontrados = new StringBuilder();
+        unir(trechos, resultado, naoEncontrados);
+
+        if (naoEncontrados.length() > 0) {
+            return ArvoreMorse.mensagemLetrasNaoEncontradas(naoEncontrados);
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Decodifica um código Morse em paralelo
+     * @return Texto, ou a mesma mensagem de erro de ArvoreMorse.decodificarPalavra
+     */
+    public String decodificarPalavra(String codigoMorse) {
+        // Compila antes de dividir para que as tarefas apenas leiam a árvore
+        arvore.compilar();
+
+        List<Trecho> trechos = dividir(codigoMorse, false);
+        pool.invoke(new Processamento(trechos, 0, trechos.size(), codigoMorse, false));
+
+        StringBuilder resultado = new StringBuilder();
+        StringBuilder naoEncontrados = new StringBuilder();
+        unir(trechos, resultado, naoEncontrados);
+
+        if (naoEncontrados.length() > 0) {
+            return ArvoreMorse.mensagemCodigosNaoEncontrados(naoEncontrados);
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Divide a entrada em trechos que começam em um espaço. Na codificação o
+     * espaço precisa vir logo após uma letra conhecida, para que o estado dos
+     * separadores no início do trecho seja conhecido sem processar o anterior.
+     */
+    private List<Trecho> dividir(String texto, boolean codificar) {
+        int quantidade = Math.max(1, Math.min(pool.getParallelism() * TRECHOS_POR_THREAD,
+                texto.length() / TAMANHO_MINIMO_TRECHO));
+        List<Trecho> trechos = new ArrayList<>(quantidade);
+
+        int inicio = 0;
+        for (int i = 1; i < quantidade; i++) {
+            int corte = procurarCorte(texto, Math.max(inicio + 1, (int) ((long) texto.length() * i / quantidade)), codificar);
+            if (corte == -1) {
+                break;
+            }
+            if (corte > inicio) {
+                trechos.add(new Trecho(inicio, corte));
+                inicio = corte;
+            }
+        }
+        trechos.add(new Trecho(inicio, texto.length()));
+        return trechos;
+    }
+
+    private int procurarCorte(String texto, int aPartirDe, boolean codificar) {
+        for (int i = aPartirDe; i < texto.length(); i++) {
+            if (texto.charAt(i) != ' ') {
+                continue;
+            }
+            if (!codificar) {
+                return i;
+            }
+
+            char anterior = texto.charAt(i - 1);
+            if (anterior != ' ' && anterior != '\n' && anterior != '\r'
+                    && CodificadorStream.codificavel(arvore, anterior)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void unir(List<Trecho> trechos, StringBuilder resultado, StringBuilder naoEncontrados) {
+        int tamanho = 0;
+        for (Trecho trecho : trechos) {
+            tamanho += trecho.resultado.length();
+        }
+        resultado.ensureCapacity(tamanho);
+
+        for (Trecho trecho : trechos) {
+            resultado.append(trecho.resultado);
+            if (trecho.naoEncontrados.length() > 0) {
+                if (naoEncontrados.length() > 0) {
+                    naoEncontrados.append(", ");
+                }
+                naoEncontrados.append(trecho.naoEncontrados);
+            }
+        }
+    }
+
+    private void processar(Trecho trecho, String texto, boolean codificar) {
+        if (!codificar) {
+            arvore.decodificarTrecho(texto, trecho.inicio, trecho.fim, trecho.resultado, trecho.naoEncontrados);
+            return;
+        }
+
+        StringBuilder naoEncontrados = trecho.naoEncontrados;
+        CodificadorStream codificador = new CodificadorStream(arvore, (letra, posicao) -> {
+            if (naoEncontrados.length() > 0) {
+                naoEncontrados.append(", ");
+            }
+            naoEncontrados.append(letra);
+        });
+
+        if (trecho.inicio > 0) {
+            codificador.continuarAposCodigo(trecho.inicio);
+        }
+
+        try {
+            // Modo mensagem, como codificarPalavra: quebras de linha são letras sem código
+            codificador.codificarMensagem(texto, trecho.inicio, trecho.fim, trecho.resultado);
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Intervalo [inicio, fim) da entrada e o resultado do seu processamento
+     */
+    private static class Trecho {
+        final int inicio;
+        final int fim;
+        final StringBuilder resultado = new StringBuilder();
+        final StringBuilder naoEncontrados = new StringBuilder();
+
+        Trecho(int inicio, int fim) {
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+
+    /**
+     * Processa os trechos [de, ate) dividindo a lista ao meio recursivamente
+     */
+    @SuppressWarnings("serial")  // Tarefa interna, nunca serializada
+    private class Processamento extends RecursiveAction {
+        private final List<Trecho> trechos;
+        private final int de;
+        private final int ate;
+        private final String texto;
+        private final boolean codificar;
+
+        Processamento(List<Trecho> trechos, int de, int ate, String texto, boolean codificar) {
+            this.trechos = trechos;
+            this.de = de;
+            this.ate = ate;
+            this.texto = texto;
+            this.codificar = codificar;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de == 1) {
+                processar(trechos.get(de), texto, codificar);
+                return;
+            }
+
+            int meio = (de + ate) >>> 1;
+            invokeAll(new Processamento(trechos, de, meio, texto, codificar),
+                      new Processamento(trechos, meio, ate, texto, codificar));
+        }
+    }
+}
@@ -0,0 +1,419 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segmentação de sequências Morse sem os intervalos entre letras
+ *
+ * Uma sequência como "...---..." pode ser lida de muitas formas (SOS, EEETTTEEE,
+ * VTB...). A segmentação percorre a sequência com programação dinâmica: em cada
+ * posição, cada hipótese é estendida por todos os códigos de 1 a N símbolos que
+ * existem na árvore (decodificarSimbolo, sem criar substrings) e pontuada por um
+ * modelo de bigramas de letras mais um bônus por palavra do dicionário.
+ *
+ * Hipóteses na mesma posição com a mesma última letra e o mesmo prefixo de palavra
+ * têm o mesmo futuro, então são unidas (no máximo k por estado) e cada posição guarda
+ * só as melhores larguraFeixe hipóteses. Cada inserção percorre o feixe de destino,
+ * então o custo é linear no tamanho da sequência: posições x profundidade da árvore x
+ * largura do feixe².
+ *
+ * O modelo e o dicionário são montados no construtor e só lidos depois; o rascunho
+ * da busca é criado a cada chamada, então uma instância pode ser usada por várias
+ * threads ao mesmo tempo.
+ *
+ * Espaços na entrada marcam intervalos entre letras conhecidos e "/" separa palavras;
+ * o restante da sequência é segmentado livremente.
+ */
+public class SegmentadorMorse {
+    public static final int LARGURA_FEIXE_PADRAO = 64;
+
+    // Suavização aditiva dos bigramas
+    private static final double ALFA = 0.1;
+    // Bônus (em log-probabilidade) por palavra completa do dicionário
+    private static final double BONUS_PALAVRA = 6.0;
+    // Bônus por letra enquanto a palavra ainda é prefixo de alguma palavra do dicionário
+    private static final double BONUS_PREFIXO = 1.0;
+
+    private static final byte NENHUM = 0;
+    private static final byte LETRA = 1;
+    private static final byte PALAVRA = 2;
+
+    private final TabelaDecodificacao tabela;
+    private final int larguraFeixe;
+
+    // Modelo de bigramas: índice A (= quantidade de letras) é o início/fim de palavra
+    private final Map<Character, Integer> indiceLetras = new HashMap<>();
+    private final int[] indicePorPosicao;   // Posição do heap -> índice da letra (-1 = vazia)
+    private final double[] bigramas;        // log P(letra | anterior), (A + 1) x (A + 1)
+    private final int fronteira;
+
+    // Trie do dicionário em tabela de hash aberta: (nó << 16 | letra) -> filho
+    private long[] chavesTrie = new long[64];
+    private int[] filhosTrie = new int[64];
+    private int quantidadeArestas;
+    private boolean[] terminal = new boolean[16];
+    private int quantidadeNos = 1;           // Nó 0 = raiz
+
+    /**
+     * @param arvore Árvore com os códigos (compilada no construtor)
+     * @param dicionario Palavras usadas para treinar os bigramas e dar o bônus de palavra
+     */
+    public SegmentadorMorse(ArvoreMorse arvore, Iterable<String> dicionario) {
+        this(arvore, dicionario, LARGURA_FEIXE_PADRAO);
+    }
+
+    public SegmentadorMorse(ArvoreMorse arvore, Iterable<String> dicionario, int larguraFeixe) {
+        if (larguraFeixe <= 0) {
+            throw new IllegalArgumentException("Largura do feixe deve ser positiva");
+        }
+        ArvoreCompilada compilada = arvore.compilar();
+        if (compilada == null) {
+            throw new IllegalStateException("Árvore profunda demais para a segmentação");
+        }
+        this.tabela = compilada;
+        this.larguraFeixe = larguraFeixe;
+
+        int profundidade = compilada.getProfundidade();
+        this.indicePorPosicao = new int[profundidade < 0 ? 0 : (1 << (profundidade + 1)) - 1];
+        Arrays.fill(indicePorPosicao, -1);
+        for (int n = 1; n <= profundidade; n++) {
+            for (int bits = 0; bits < (1 << n); bits++) {
+                char letra = compilada.decodificarSimbolo(n, bits);
+                if (letra != '\0') {
+                    Integer indice = indiceLetras.get(letra);
+                    if (indice == null) {
+                        indice = indiceLetras.size();
+                        indiceLetras.put(letra, indice);
+                    }
+                    indicePorPosicao[(1 << n) - 1 + bits] = indice;
+                }
+            }
+        }
+
+        this.fronteira = indiceLetras.size();
+        int dimensao = fronteira + 1;
+        double[] contagens = new double[dimensao * dimensao];
+
+        for (String palavra : dicionario) {
+            int anterior = fronteira;
+            int no = 0;
+            boolean valida = !palavra.isEmpty();
+            for (int i = 0; i < palavra.length() && valida; i++) {
+                char letra = DobraCaracteres.maiuscula(palavra.charAt(i));
+                Integer indice = indiceLetras.get(letra);
+                if (indice == null) {
+                    valida = false;
+                } else {
+                    contagens[anterior * dimensao + indice]++;
+                    anterior = indice;
+                }
+            }
+            if (!valida) {
+                continue;  // Palavra com letras fora da árvore
+            }
+            contagens[anterior * dimensao + fronteira]++;
+
+            for (int i = 0; i < palavra.length(); i++) {
+                no = adicionarFilho(no, DobraCaracteres.maiuscula(palavra.charAt(i)));
+            }
+            terminal[no] = true;
+        }
+
+        this.bigramas = new double[dimensao * dimensao];
+        for (int anterior = 0; anterior < dimensao; anterior++) {
+            double total = 0;
+            for (int letra = 0; letra < dimensao; letra++) {
+                total += contagens[anterior * dimensao + letra];
+            }
+            for (int letra = 0; letra < dimensao; letra++) {
+                bigramas[anterior * dimensao + letra] =
+                        Math.log((contagens[anterior * dimensao + letra] + ALFA) / (total + ALFA * dimensao));
+            }
+        }
+    }
+
+    /**
+     * Segmenta a sequência e retorna as k interpretações mais prováveis
+     * @param sequencia Pontos e traços; espaços marcam intervalos de letra conhecidos e "/" separa palavras
+     * @param k Quantidade máxima de interpretações
+     * @return Interpretações em ordem decrescente de pontuação (vazia se nenhuma segmentação existir)
+     * @throws IllegalArgumentException se a sequência tiver outros caracteres
+     */
+    public List<Interpretacao> segmentar(String sequencia, int k) {
+        // Símbolos (0 = ponto, 1 = traço) e o tipo de limite antes de cada símbolo
+        byte[] simbolos = new byte[sequencia.length()];
+        byte[] limites = new byte[sequencia.length() + 1];
+        int m = 0;
+        for (int i = 0; i < sequencia.length(); i++) {
+            char c = sequencia.charAt(i);
+            if (c == '.' || c == '-') {
+                simbolos[m++] = (byte) (c == '.' ? 0 : 1);
+            } else if (c == '/') {
+                limites[m] = PALAVRA;
+            } else if (c <= ' ') {
+                limites[m] = (byte) Math.max(limites[m], LETRA);
+            } else {
+                throw new IllegalArgumentException("Caractere inválido na sequência: " + c);
+            }
+        }
+        if (m == 0 || k <= 0) {
+            return Collections.emptyList();
+        }
+
+        Busca busca = new Busca(m, k);
+
+        int profundidade = tabela.getProfundidade();
+        for (int i = 0; i < m; i++) {
+            for (int h = 0; h < busca.tamanhos[i]; h++) {
+                int hipotese = busca.feixes[i][h];
+                int bits = 0;
+                for (int comprimento = 1; comprimento <= profundidade && i + comprimento <= m; comprimento++) {
+                    int j = i + comprimento;
+                    if (comprimento > 1 && limites[j - 1] != NENHUM) {
+                        break;  // A letra não pode atravessar um intervalo conhecido
+                    }
+                    bits = (bits << 1) | simbolos[j - 1];
+                    int posicao = (1 << comprimento) - 1 + bits;
+                    int indice = indicePorPosicao[posicao];
+                    if (indice >= 0) {
+                        busca.estender(hipotese, tabela.decodificarSimbolo(comprimento, bits), indice,
+                                j == m || limites[j] == PALAVRA, j);
+                    }
+                }
+            }
+        }
+
+        List<Interpretacao> resultado = new ArrayList<>();
+        for (int h = 0; h < busca.tamanhos[m] && resultado.size() < k; h++) {
+            int hipotese = busca.feixes[m][h];
+            resultado.add(new Interpretacao(busca.reconstruir(hipotese), busca.hPontuacao[hipotese]));
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Filho do nó pela letra, ou -1 se não existir
+     */
+    private int buscarFilho(int no, char letra) {
+        long chave = ((long) no << 16) | letra;
+        int mascara = chavesTrie.length - 1;
+        for (int i = Long.hashCode(chave * 0x9E3779B97F4A7C15L) & mascara; ; i = (i + 1) & mascara) {
+            if (filhosTrie[i] == 0) {
+                return -1;
+            }
+            if (chavesTrie[i] == chave) {
+                return filhosTrie[i];
+            }
+        }
+    }
+
+    private int adicionarFilho(int no, char letra) {
+        int filho = buscarFilho(no, letra);
+        if (filho >= 0) {
+            return filho;
+        }
+
+        if (2 * (quantidadeArestas + 1) > chavesTrie.length) {
+            long[] chaves = chavesTrie;
+            int[] filhos = filhosTrie;
+            chavesTrie = new long[chaves.length * 2];
+            filhosTrie = new int[chaves.length * 2];
+            for (int i = 0; i < chaves.length; i++) {
+                if (filhos[i] != 0) {
+                    inserirAresta(chaves[i], filhos[i]);
+                }
+            }
+        }
+        if (quantidadeNos == terminal.length) {
+            terminal = Arrays.copyOf(terminal, terminal.length * 2);
+        }
+
+        filho = quantidadeNos++;
+        inserirAresta(((long) no << 16) | letra, filho);
+        quantidadeArestas++;
+        return filho;
+    }
+
+    private void inserirAresta(long chave, int filho) {
+        // Filho 0 (a raiz) nunca é destino de aresta, então 0 marca posição livre
+        int mascara = chavesTrie.length - 1;
+        int i = Long.hashCode(chave * 0x9E3779B97F4A7C15L) & mascara;
+        while (filhosTrie[i] != 0) {
+            i = (i + 1) & mascara;
+        }
+        chavesTrie[i] = chave;
+        filhosTrie[i] = filho;
+    }
+
+    /**
+     * Rascunho de uma chamada de segmentar(): hipóteses (letra, anterior, estado e
+     * pontuação, em arrays paralelos) e o feixe de cada posição
+     */
+    private final class Busca {
+        private final int k;
+        // Feixes por posição: ids de hipóteses em ordem decrescente de pontuação
+        final int[][] feixes;
+        final int[] tamanhos;
+
+        private char[] hLetra = new char[256];
+        private int[] hAnterior = new int[256];
+        private int[] hContexto = new int[256];
+        private int[] hNo = new int[256];
+        private boolean[] hFimPalavra = new boolean[256];
+        double[] hPontuacao = new double[256];
+        private int quantidadeHipoteses;
+
+        Busca(int posicoes, int k) {
+            this.k = k;
+            this.feixes = new int[posicoes + 1][];
+            this.tamanhos = new int[posicoes + 1];
+            feixes[0] = new int[]{novaHipotese('\0', -1, fronteira, 0, false, 0.0)};
+            tamanhos[0] = 1;
+        }
+
+        /**
+         * Pontua a hipótese estendida pela letra e a insere no feixe da posição j
+         */
+        void estender(int anterior, char letra, int indice, boolean fimPalavra, int j) {
+            int dimensao = fronteira + 1;
+            double pontuacao = hPontuacao[anterior] + bigramas[hContexto[anterior] * dimensao + indice];
+
+            int no = hNo[anterior] >= 0 ? buscarFilho(hNo[anterior], letra) : -1;
+            if (no >= 0) {
+                pontuacao += BONUS_PREFIXO;
+            }
+
+            int contexto = indice;
+            if (fimPalavra) {
+                pontuacao += bigramas[indice * dimensao + fronteira];
+                if (no >= 0 && terminal[no]) {
+                    pontuacao += BONUS_PALAVRA;
+                }
+                // Depois do fim de palavra o estado volta ao início
+                contexto = fronteira;
+                no = 0;
+            }
+
+            int[] feixe = feixes[j];
+            int tamanho = tamanhos[j];
+            if (tamanho == larguraFeixe && pontuacao <= hPontuacao[feixe[tamanho - 1]]) {
+                return;
+            }
+
+            // Estados iguais têm o mesmo futuro: no máximo k hipóteses por estado
+            int iguaisMelhores = 0;
+            int piorIgual = -1;
+            for (int i = 0; i < tamanho; i++) {
+                int outra = feixe[i];
+                if (hContexto[outra] == contexto && hNo[outra] == no) {
+                    if (hPontuacao[outra] >= pontuacao) {
+                        iguaisMelhores++;
+                    }
+                    piorIgual = i;
+                }
+            }
+            if (iguaisMelhores >= k) {
+                return;
+            }
+
+            if (feixe == null) {
+                feixe = new int[Math.min(larguraFeixe, 8)];
+                feixes[j] = feixe;
+            }
+            int nova = novaHipotese(letra, anterior, contexto, no, fimPalavra, pontuacao);
+
+            // Libera espaço: o pior do mesmo estado se já houver k, senão o último do feixe
+            if (piorIgual >= 0 && contarEstado(feixe, tamanho, contexto, no) >= k) {
+                System.arraycopy(feixe, piorIgual + 1, feixe, piorIgual, tamanho - piorIgual - 1);
+                tamanho--;
+            } else if (tamanho == larguraFeixe) {
+                tamanho--;
+            }
+            if (tamanho == feixe.length) {
+                feixe = Arrays.copyOf(feixe, Math.min(larguraFeixe, feixe.length * 2));
+                feixes[j] = feixe;
+            }
+
+            int i = tamanho;
+            while (i > 0 && hPontuacao[feixe[i - 1]] < pontuacao) {
+                feixe[i] = feixe[i - 1];
+                i--;
+            }
+            feixe[i] = nova;
+            tamanhos[j] = tamanho + 1;
+        }
+
+        private int contarEstado(int[] feixe, int tamanho, int contexto, int no) {
+            int quantidade = 0;
+            for (int i = 0; i < tamanho; i++) {
+                if (hContexto[feixe[i]] == contexto && hNo[feixe[i]] == no) {
+                    quantidade++;
+                }
+            }
+            return quantidade;
+        }
+
+        String reconstruir(int hipotese) {
+            StringBuilder texto = new StringBuilder();
+            boolean ultima = true;
+            for (int h = hipotese; hAnterior[h] >= 0; h = hAnterior[h]) {
+                if (hFimPalavra[h] && !ultima) {
+                    texto.append(' ');
+                }
+                texto.append(hLetra[h]);
+                ultima = false;
+            }
+            return texto.reverse().toString();
+        }
+
+        private int novaHipotese(char letra, int anterior, int contexto, int no, boolean fimPalavra, double pontuacao) {
+            if (quantidadeHipoteses == hLetra.length) {
+                int capacidade = hLetra.length * 2;
+                hLetra = Arrays.copyOf(hLetra, capacidade);
+                hAnterior = Arrays.copyOf(hAnterior, capacidade);
+                hContexto = Arrays.copyOf(hContexto, capacidade);
+                hNo = Arrays.copyOf(hNo, capacidade);
+                hFimPalavra = Arrays.copyOf(hFimPalavra, capacidade);
+                hPontuacao = Arrays.copyOf(hPontuacao, capacidade);
+            }
+            int id = quantidadeHipoteses++;
+            hLetra[id] = letra;
+            hAnterior[id] = anterior;
+            hContexto[id] = contexto;
+            hNo[id] = no;
+            hFimPalavra[id] = fimPalavra;
+            hPontuacao[id] = pontuacao;
+            return id;
+        }
+    }
+
+    /**
+     * Uma leitura possível da sequência e sua pontuação (log-probabilidade com bônus;
+     * maior é melhor, só comparável entre resultados da mesma sequência)
+     */
+    public static class Interpretacao {
+        private final String texto;
+        private final double pontuacao;
+
+        Interpretacao(String texto, double pontuacao) {
+            this.texto = texto;
+            this.pontuacao = pontuacao;
+        }
+
+        public String getTexto() {
+            return texto;
+        }
+
+        public double getPontuacao() {
+            return pontuacao;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%.2f)", texto, pontuacao);
+        }
+    }
+}
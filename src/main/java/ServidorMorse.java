@@ -0,0 +1,311 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP embutido (com.sun.net.httpserver, sem dependências externas)
+ *
+ * Endpoints (método POST):
+ *   /encode - codifica texto em Morse
+ *   /decode - decodifica Morse em texto
+ *
+ * Com Content-Type application/json o corpo é um array JSON de strings e a resposta é
+ * um array com o resultado de codificarPalavra/decodificarPalavra para cada item
+ * (corpos maiores que TAMANHO_MAXIMO_JSON recebem 413).
+ * Qualquer outro corpo é tratado como texto em fluxo: é convertido à medida que chega
+ * e a resposta é enviada em chunks. Como a resposta em fluxo não pode ser desfeita,
+ * letras desconhecidas são omitidas e códigos desconhecidos viram '?'.
+ *
+ * Todas as requisições usam a mesma árvore compartilhada. Em Java 21+ cada requisição
+ * roda em uma virtual thread; em versões anteriores, em um pool de threads.
+ */
+public class ServidorMorse {
+    // Maior corpo JSON aceito (o corpo inteiro fica em memória); o modo em fluxo não tem limite
+    public static final int TAMANHO_MAXIMO_JSON = 8 * 1024 * 1024;
+
+    private static final int TAMANHO_BUFFER = 8192;
+    private static final String TIPO_JSON = "application/json";
+    private static final String TIPO_TEXTO = "text/plain; charset=utf-8";
+
+    private final ArvoreMorseConcorrente arvore;
+    private final int porta;
+    private HttpServer servidor;
+    private ExecutorService executor;
+
+    public ServidorMorse(ArvoreMorseConcorrente arvore, int porta) {
+        this.arvore = arvore;
+        this.porta = porta;
+    }
+
+    /**
+     * Inicia o servidor (retorna imediatamente; as requisições rodam no executor)
+     */
+    public void iniciar() throws IOException {
+        servidor = HttpServer.create(new InetSocketAddress(porta), 1024);
+        executor = criarExecutor();
+        servidor.setExecutor(executor);
+        servidor.createContext("/encode", troca -> atender(troca, true));
+        servidor.createContext("/decode", troca -> atender(troca, false));
+        servidor.start();
+    }
+
+    /**
+     * Para o servidor, aguardando até 1 segundo pelas requisições em andamento
+     */
+    public void parar() {
+        if (servidor != null) {
+            servidor.stop(1);
+            executor.shutdown();
+            servidor = null;
+        }
+    }
+
+    /**
+     * Retorna a porta em uso (útil quando o servidor foi criado com porta 0)
+     */
+    public int getPorta() {
+        return servidor != null ? servidor.getAddress().getPort() : porta;
+    }
+
+    /**
+     * Usa Executors.newVirtualThreadPerTaskExecutor quando disponível (Java 21+).
+     * O projeto compila para Java 11, então o método é procurado por reflexão.
+     */
+    private static ExecutorService criarExecutor() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) fabrica.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void atender(HttpExchange troca, boolean codificar) throws IOException {
+        try {
+            if (!troca.getRequestMethod().equals("POST")) {
+                responder(troca, 405, TIPO_TEXTO, "Use POST");
+                return;
+            }
+
+            String tipo = troca.getRequestHeaders().getFirst("Content-Type");
+            if (tipo != null && tipo.startsWith(TIPO_JSON)) {
+                atenderLote(troca, codificar);
+            } else {
+                atenderFluxo(troca, codificar);
+            }
+        } finally {
+            troca.close();
+        }
+    }
+
+    /**
+     * Array JSON de strings -> array JSON de resultados
+     */
+    private void atenderLote(HttpExchange troca, boolean codificar) throws IOException {
+        String corpo = lerTudo(troca.getRequestBody(), TAMANHO_MAXIMO_JSON);
+        if (corpo == null) {
+            responder(troca, 413, TIPO_TEXTO, "Corpo JSON maior que " + TAMANHO_MAXIMO_JSON + " bytes");
+            return;
+        }
+
+        List<String> entradas;
+        try {
+            entradas = lerArrayJson(corpo);
+        } catch (IllegalArgumentException e) {
+            responder(troca, 400, TIPO_TEXTO, "JSON inválido: " + e.getMessage());
+            return;
+        }
+
+        ArvoreMorse versao = arvore.getVersaoAtual();
+        StringBuilder resposta = new StringBuilder("[");
+        for (int i = 0; i < entradas.size(); i++) {
+            if (i > 0) {
+                resposta.append(',');
+            }
+            String entrada = entradas.get(i);
+            escreverStringJson(codificar ? versao.codificarPalavra(entrada) : versao.decodificarPalavra(entrada), resposta);
+        }
+        resposta.append(']');
+
+        responder(troca, 200, TIPO_JSON, resposta.toString());
+    }
+
+    /**
+     * Corpo em texto convertido em fluxo, com resposta em chunks
+     */
+    private void atenderFluxo(HttpExchange troca, boolean codificar) throws IOException {
+        ArvoreMorse versao = arvore.getVersaoAtual();
+        troca.getResponseHeaders().set("Content-Type", TIPO_TEXTO);
+        troca.sendResponseHeaders(200, 0);
+
+        Reader entrada = new InputStreamReader(troca.getRequestBody(), StandardCharsets.UTF_8);
+        Writer saida = new BufferedWriter(new OutputStreamWriter(troca.getResponseBody(), StandardCharsets.UTF_8), TAMANHO_BUFFER);
+
+        if (codificar) {
+            CodificadorStream codificador = new CodificadorStream(versao, null);
+            char[] buffer = new char[TAMANHO_BUFFER];
+            CharBuffer texto = CharBuffer.wrap(buffer);
+            int lidos;
+            while ((lidos = entrada.read(buffer)) != -1) {
+                codificador.codificar(texto, 0, lidos, saida);
+            }
+        } else {
+            new DecodificadorStream(versao).decodificar(entrada, saida);
+        }
+
+        saida.flush();
+    }
+
+    private static void responder(HttpExchange troca, int status, String tipo, String corpo) throws IOException {
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", tipo);
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+
+    /**
+     * @return Corpo em UTF-8, ou null se passar de limite bytes (a leitura para no limite)
+     */
+    private static String lerTudo(InputStream entrada, int limite) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[TAMANHO_BUFFER];
+        int lidos;
+        while ((lidos = entrada.read(buffer)) != -1) {
+            if (bytes.size() + lidos > limite) {
+                return null;
+            }
+            bytes.write(buffer, 0, lidos);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Lê um array JSON contendo apenas strings
+     */
+    static List<String> lerArrayJson(String json) {
+        List<String> itens = new ArrayList<>();
+        int i = pularEspacos(json, 0);
+        if (i >= json.length() || json.charAt(i) != '[') {
+            throw new IllegalArgumentException("esperado '['");
+        }
+        i = pularEspacos(json, i + 1);
+
+        if (i < json.length() && json.charAt(i) == ']') {
+            return itens;
+        }
+
+        StringBuilder item = new StringBuilder();
+        while (true) {
+            if (i >= json.length() || json.charAt(i) != '"') {
+                throw new IllegalArgumentException("esperada string na posição " + i);
+            }
+            item.setLength(0);
+            i = lerStringJson(json, i + 1, item);
+            itens.add(item.toString());
+
+            i = pularEspacos(json, i);
+            if (i >= json.length()) {
+                throw new IllegalArgumentException("array não terminado");
+            }
+            char c = json.charAt(i);
+            if (c == ']') {
+                break;
+            }
+            if (c != ',') {
+                throw new IllegalArgumentException("esperado ',' ou ']' na posição " + i);
+            }
+            i = pularEspacos(json, i + 1);
+        }
+
+        if (pularEspacos(json, i + 1) != json.length()) {
+            throw new IllegalArgumentException("conteúdo após o array");
+        }
+        return itens;
+    }
+
+    /**
+     * Lê o conteúdo de uma string JSON a partir do caractere após a aspa inicial
+     * @return Posição após a aspa final
+     */
+    private static int lerStringJson(String json, int i, StringBuilder destino) {
+        while (i < json.length()) {
+            char c = json.charAt(i++);
+            if (c == '"') {
+                return i;
+            }
+            if (c != '\\') {
+                destino.append(c);
+                continue;
+            }
+            if (i >= json.length()) {
+                break;
+            }
+
+            char escape = json.charAt(i++);
+            switch (escape) {
+                case '"': destino.append('"'); break;
+                case '\\': destino.append('\\'); break;
+                case '/': destino.append('/'); break;
+                case 'b': destino.append('\b'); break;
+                case 'f': destino.append('\f'); break;
+                case 'n': destino.append('\n'); break;
+                case 'r': destino.append('\r'); break;
+                case 't': destino.append('\t'); break;
+                case 'u':
+                    if (i + 4 > json.length()) {
+                        throw new IllegalArgumentException("escape \\u incompleto");
+                    }
+                    try {
+                        destino.append((char) Integer.parseInt(json.substring(i, i + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("escape \\u inválido");
+                    }
+                    i += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("escape inválido \\" + escape);
+            }
+        }
+        throw new IllegalArgumentException("string não terminada");
+    }
+
+    private static void escreverStringJson(String texto, StringBuilder destino) {
+        destino.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c == '"' || c == '\\') {
+                destino.append('\\').append(c);
+            } else if (c < ' ') {
+                destino.append(String.format("\\u%04x", (int) c));
+            } else {
+                destino.append(c);
+            }
+        }
+        destino.append('"');
+    }
+
+    private static int pularEspacos(String texto, int i) {
+        while (i < texto.length() && Character.isWhitespace(texto.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,221 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Sintetizador de áudio para código Morse (PCM 16 bits mono, little-endian)
+ *
+ * As formas de onda do ponto e do traço (com rampas de cosseno nas bordas, para
+ * evitar estalos) e os silêncios são gerados uma única vez no construtor. A síntese
+ * apenas copia esses buffers em bloco para um ByteBuffer direto, que é esvaziado no
+ * canal de saída: o custo por hora de áudio é de cópias de memória, não de cálculo.
+ *
+ * A velocidade segue o padrão PARIS (ponto = 1,2 / PPM segundos). Com espaçamento
+ * Farnsworth as letras são enviadas na velocidade de caractere e os espaços entre
+ * letras e palavras são alongados para atingir a velocidade efetiva.
+ */
+public class SintetizadorMorse {
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final double AMPLITUDE = 0.5 * Short.MAX_VALUE;
+
+    // Espaço pendente antes do próximo tom
+    private static final int SEM_ESPACO = 0;
+    private static final int ESPACO_LETRA = 1;
+    private static final int ESPACO_PALAVRA = 2;
+
+    private final int taxaAmostragem;
+    private final byte[] ponto;
+    private final byte[] traco;
+    private final byte[] espacoElemento;
+    private final byte[] espacoLetra;
+    private final byte[] espacoPalavra;
+
+    /**
+     * Sintetizador a 44,1 kHz, tom de 600 Hz e rampas de 5 ms, sem Farnsworth
+     * @param ppm Velocidade em palavras por minuto
+     */
+    public SintetizadorMorse(double ppm) {
+        this(44100, 600, ppm, ppm, 5);
+    }
+
+    /**
+     * @param taxaAmostragem Amostras por segundo
+     * @param frequencia Frequência do tom em Hz
+     * @param ppmCaractere Velocidade dos pontos e traços (palavras por minuto)
+     * @param ppmEfetiva Velocidade efetiva com espaçamento Farnsworth (igual a ppmCaractere para desligar)
+     * @param rampaMs Duração das rampas de subida e descida do tom, em milissegundos
+     */
+    public SintetizadorMorse(int taxaAmostragem, double frequencia, double ppmCaractere, double ppmEfetiva, double rampaMs) {
+        if (ppmEfetiva > ppmCaractere) {
+            throw new IllegalArgumentException("A velocidade efetiva não pode ser maior que a de caractere");
+        }
+
+        this.taxaAmostragem = taxaAmostragem;
+        double unidade = 1.2 / ppmCaractere;
+        double segundosLetra = 3 * unidade;
+        double segundosPalavra = 7 * unidade;
+
+        if (ppmEfetiva < ppmCaractere) {
+            // Atraso total de Farnsworth distribuído na proporção 3:7 entre letras e palavras
+            double atraso = (60 * ppmCaractere - 37.2 * ppmEfetiva) / (ppmCaractere * ppmEfetiva);
+            segundosLetra = 3 * atraso / 19;
+            segundosPalavra = 7 * atraso / 19;
+        }
+
+        int amostrasUnidade = (int) Math.round(unidade * taxaAmostragem);
+        int amostrasRampa = (int) Math.min(Math.round(rampaMs / 1000 * taxaAmostragem), amostrasUnidade / 2);
+
+        this.ponto = gerarTom(amostrasUnidade, frequencia, amostrasRampa);
+        this.traco = gerarTom(3 * amostrasUnidade, frequencia, amostrasRampa);
+        this.espacoElemento = new byte[2 * amostrasUnidade];
+        this.espacoLetra = new byte[2 * (int) Math.round(segundosLetra * taxaAmostragem)];
+        this.espacoPalavra = new byte[2 * (int) Math.round(segundosPalavra * taxaAmostragem)];
+    }
+
+    private byte[] gerarTom(int amostras, double frequencia, int amostrasRampa) {
+        byte[] onda = new byte[2 * amostras];
+        double passo = 2 * Math.PI * frequencia / taxaAmostragem;
+
+        for (int i = 0; i < amostras; i++) {
+            double envelope = 1.0;
+            int distanciaBorda = Math.min(i, amostras - 1 - i);
+            if (distanciaBorda < amostrasRampa) {
+                envelope = 0.5 - 0.5 * Math.cos(Math.PI * distanciaBorda / amostrasRampa);
+            }
+
+            short valor = (short) Math.round(AMPLITUDE * envelope * Math.sin(passo * i));
+            onda[2 * i] = (byte) valor;
+            onda[2 * i + 1] = (byte) (valor >> 8);
+        }
+
+        return onda;
+    }
+
+    /**
+     * Calcula quantos bytes de PCM o código gera (usado no cabeçalho WAV)
+     */
+    public long calcularTamanhoBytes(CharSequence codigoMorse) {
+        long total = 0;
+        int espacoPendente = SEM_ESPACO;
+        boolean dentroLetra = false;
+        boolean houveTom = false;
+
+        for (int i = 0; i < codigoMorse.length(); i++) {
+            char simbolo = codigoMorse.charAt(i);
+
+            if (simbolo == '.' || simbolo == '-') {
+                if (dentroLetra) {
+                    total += espacoElemento.length;
+                } else if (houveTom) {
+                    total += espacoPendente == ESPACO_PALAVRA ? espacoPalavra.length : espacoLetra.length;
+                }
+                total += simbolo == '.' ? ponto.length : traco.length;
+                dentroLetra = true;
+                houveTom = true;
+                espacoPendente = SEM_ESPACO;
+            } else if (simbolo == '/') {
+                espacoPendente = ESPACO_PALAVRA;
+                dentroLetra = false;
+            } else if (simbolo <= ' ') {
+                espacoPendente = Math.max(espacoPendente, ESPACO_LETRA);
+                dentroLetra = false;
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Sintetiza o código Morse (formato de codificarPalavra) como PCM bruto
+     * @return Quantidade de bytes escritos
+     */
+    public long sintetizar(CharSequence codigoMorse, WritableByteChannel destino) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+        long escritos = 0;
+        int espacoPendente = SEM_ESPACO;
+        boolean dentroLetra = false;
+        boolean houveTom = false;
+
+        for (int i = 0; i < codigoMorse.length(); i++) {
+            char simbolo = codigoMorse.charAt(i);
+
+            if (simbolo == '.' || simbolo == '-') {
+                if (dentroLetra) {
+                    escritos += copiar(espacoElemento, buffer, destino);
+                } else if (houveTom) {
+                    escritos += copiar(espacoPendente == ESPACO_PALAVRA ? espacoPalavra : espacoLetra, buffer, destino);
+                }
+                escritos += copiar(simbolo == '.' ? ponto : traco, buffer, destino);
+                dentroLetra = true;
+                houveTom = true;
+                espacoPendente = SEM_ESPACO;
+            } else if (simbolo == '/') {
+                espacoPendente = ESPACO_PALAVRA;
+                dentroLetra = false;
+            } else if (simbolo <= ' ') {
+                espacoPendente = Math.max(espacoPendente, ESPACO_LETRA);
+                dentroLetra = false;
+            }
+        }
+
+        esvaziar(buffer, destino);
+        return escritos;
+    }
+
+    /**
+     * Sintetiza o código Morse como arquivo WAV completo (cabeçalho + dados)
+     */
+    public void gravarWav(CharSequence codigoMorse, WritableByteChannel destino) throws IOException {
+        long tamanhoDados = calcularTamanhoBytes(codigoMorse);
+        if (tamanhoDados > 0xFFFFFFFFL - 36) {
+            throw new IOException("Áudio grande demais para o formato WAV");
+        }
+
+        ByteBuffer cabecalho = ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN);
+        cabecalho.put((byte) 'R').put((byte) 'I').put((byte) 'F').put((byte) 'F');
+        cabecalho.putInt((int) (36 + tamanhoDados));
+        cabecalho.put((byte) 'W').put((byte) 'A').put((byte) 'V').put((byte) 'E');
+        cabecalho.put((byte) 'f').put((byte) 'm').put((byte) 't').put((byte) ' ');
+        cabecalho.putInt(16);                  // Tamanho do bloco fmt
+        cabecalho.putShort((short) 1);         // PCM
+        cabecalho.putShort((short) 1);         // Mono
+        cabecalho.putInt(taxaAmostragem);
+        cabecalho.putInt(taxaAmostragem * 2);  // Bytes por segundo
+        cabecalho.putShort((short) 2);         // Bytes por quadro
+        cabecalho.putShort((short) 16);        // Bits por amostra
+        cabecalho.put((byte) 'd').put((byte) 'a').put((byte) 't').put((byte) 'a');
+        cabecalho.putInt((int) tamanhoDados);
+        cabecalho.flip();
+        while (cabecalho.hasRemaining()) {
+            destino.write(cabecalho);
+        }
+
+        sintetizar(codigoMorse, destino);
+    }
+
+    public int getTaxaAmostragem() {
+        return taxaAmostragem;
+    }
+
+    private static int copiar(byte[] origem, ByteBuffer buffer, WritableByteChannel destino) throws IOException {
+        int copiados = 0;
+        while (copiados < origem.length) {
+            if (!buffer.hasRemaining()) {
+                esvaziar(buffer, destino);
+            }
+            int quantidade = Math.min(buffer.remaining(), origem.length - copiados);
+            buffer.put(origem, copiados, quantidade);
+            copiados += quantidade;
+        }
+        return copiados;
+    }
+
+    private static void esvaziar(ByteBuffer buffer, WritableByteChannel destino) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            destino.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -1,3 +1,19 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
 import java.util.Scanner;
 import javafx.application.Application;
 
@@ -6,6 +22,11 @@ import javafx.application.Application;
  * Implementa árvore binária para codificação/decodificação Morse
  */
 public class SistemaMorse {
+    private static final String LETRAS_PADRAO = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    // Tamanho máximo de cada trecho do arquivo mapeado em memória
+    private static final long JANELA_MAPEAMENTO = 256L * 1024 * 1024;
+    private static final int TAMANHO_BLOCO = 64 * 1024;
+    
     private ArvoreMorse arvore;
     private Scanner scanner;
     
@@ -29,6 +50,7 @@ public class SistemaMorse {
         System.out.println("6 - Exibir árvore (JavaFX)");
         System.out.println("7 - Carregar alfabeto padrão");
         System.out.println("8 - Limpar árvore");
+        System.out.println("9 - Compactar árvore");
         System.out.println("0 - Sair");
         System.out.println("========================================");
         System.out.print("Escolha uma opção: ");
@@ -79,7 +101,7 @@ public class SistemaMorse {
         boolean removeu = arvore.removerLetra(letra);
         
         if (removeu) {
-            System.out.println("✓ Letra '" + Character.toUpperCase(letra) + "' removida (espaço marcado como vazio)");
+            System.out.println("✓ Letra '" + Character.toUpperCase(letra) + "' removida");
         } else {
             System.out.println("✗ Letra '" + Character.toUpperCase(letra) + "' não encontrada na árvore");
         }
@@ -155,8 +177,12 @@ public class SistemaMorse {
         System.out.println("Iniciando visualizador gráfico da árvore...");
         System.out.println("Uma nova janela será aberta.");
         
-        // Exibe uma nova janela com a árvore atual
-        TreeVisualizer.exibirNovaJanela(arvore);
+        // Exibe uma nova janela com uma cópia da árvore atual, pois o desenho
+        // acontece na thread do JavaFX enquanto o menu pode alterar a árvore
+        // (modo escalável: a janela acompanha as alterações feitas pelo menu
+        // e mostra o mapa de calor das letras codificadas/decodificadas)
+        arvore.ativarContadorVisitas();
+        TreeVisualizer.exibirNovaJanela(arvore.copiar(), true);
     }
     
     /**
@@ -165,19 +191,27 @@ public class SistemaMorse {
     private void carregarAlfabetoPadrao() {
         System.out.println("\nCarregando alfabeto Morse internacional padrão...");
         
-        // Letras A-Z
-        String letras = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        int adicionadas = adicionarLetrasPadrao();
+        
+        System.out.println("✓ Alfabeto padrão carregado com sucesso!");
+        System.out.println("  " + adicionadas + " caracteres adicionados (A-Z + 0-9)");
+    }
+    
+    /**
+     * Adiciona as letras A-Z e os números 0-9 na árvore
+     * @return Quantidade de caracteres adicionados
+     */
+    private int adicionarLetrasPadrao() {
         int adicionadas = 0;
         
-        for (int i = 0; i < letras.length(); i++) {
-            char letra = letras.charAt(i);
+        for (int i = 0; i < LETRAS_PADRAO.length(); i++) {
+            char letra = LETRAS_PADRAO.charAt(i);
             if (arvore.adicionarLetra(letra) != null) {
                 adicionadas++;
             }
         }
         
-        System.out.println("✓ Alfabeto padrão carregado com sucesso!");
-        System.out.println("  " + adicionadas + " caracteres adicionados (A-Z + 0-9)");
+        return adicionadas;
     }
     
     /**
@@ -185,7 +219,7 @@ public class SistemaMorse {
      */
     private void limparArvore() {
         System.out.print("\nTem certeza que deseja limpar toda a árvore? (S/N): ");
-        String confirmacao = scanner.nextLine().trim().toUpperCase();
+        String confirmacao = scanner.nextLine().trim().toUpperCase(Locale.ROOT);
         
         if (confirmacao.equals("S") || confirmacao.equals("SIM")) {
             arvore.limparArvore();
@@ -196,15 +230,30 @@ public class SistemaMorse {
         }
     }
     
+    /**
+     * Remove os nós vazios que não levam a nenhuma letra
+     */
+    private void compactarArvore() {
+        int liberados = arvore.compactar();
+        System.out.println("✓ Árvore compactada: " + liberados + " nós liberados (~"
+                + liberados * ArvoreMorse.BYTES_POR_NO + " bytes)");
+    }
+    
     /**
      * Executa o sistema
      */
     public void executar() {
+        // Só no menu: a árvore do servidor e a do modo em lote não são esta
+        if (MetricasMorse.ATIVO) {
+            MetricasMorse.registrarMBean("menu", () -> arvore);
+        }
+        
         System.out.println("\n╔════════════════════════════════════════╗");
         System.out.println("║  BEM-VINDO AO SISTEMA DE CÓDIGO MORSE  ║");
         System.out.println("╚════════════════════════════════════════╝");
         
         boolean continuar = true;
+        long versaoExibida = arvore.getVersao();
         
         while (continuar) {
             exibirMenu();
@@ -239,6 +288,9 @@ public class SistemaMorse {
                 case "8":
                     limparArvore();
                     break;
+                case "9":
+                    compactarArvore();
+                    break;
                 case "0":
                     System.out.println("\n✓ Encerrando sistema...");
                     System.out.println("Até logo!");
@@ -247,16 +299,304 @@ public class SistemaMorse {
                 default:
                     System.out.println("\n✗ Opção inválida! Tente novamente.");
             }
+            
+            // Janelas abertas do visualizador acompanham as alterações
+            if (arvore.getVersao() != versaoExibida) {
+                versaoExibida = arvore.getVersao();
+                TreeVisualizer.atualizarArvore(arvore);
+            }
+            
+            // O contador só alimenta o mapa de calor: desliga quando não há janelas abertas
+            if (arvore.getContadorVisitas() != null && !TreeVisualizer.possuiJanelasEscalaveis()) {
+                arvore.desativarContadorVisitas();
+            }
         }
         
         scanner.close();
     }
     
+    /**
+     * Modo em lote (sem menu): converte um arquivo inteiro em uma única passada.
+     * Uso: SistemaMorse encode|decode --in ENTRADA --out SAIDA [--tabela SNAPSHOT]
+     *      SistemaMorse snapshot --out SNAPSHOT
+     * @return Código de saída do processo
+     */
+    public int executarLote(String[] args) {
+        String modo = args[0];
+        String entrada = null;
+        String saida = null;
+        String tabela = null;
+        
+        for (int i = 1; i < args.length - 1; i++) {
+            if (args[i].equals("--in")) {
+                entrada = args[++i];
+            } else if (args[i].equals("--out")) {
+                saida = args[++i];
+            } else if (args[i].equals("--tabela")) {
+                tabela = args[++i];
+            }
+        }
+        
+        if (modo.equals("snapshot") && saida != null) {
+            return salvarSnapshotPadrao(saida);
+        }
+        
+        boolean codificar = modo.equals("encode") || modo.equals("codificar");
+        boolean decodificar = modo.equals("decode") || modo.equals("decodificar");
+        
+        if ((!codificar && !decodificar) || entrada == null || saida == null) {
+            System.err.println("Uso: SistemaMorse encode|decode --in ENTRADA --out SAIDA [--tabela SNAPSHOT]");
+            System.err.println("     SistemaMorse snapshot --out SNAPSHOT");
+            return 2;
+        }
+        
+        // Na decodificação o snapshot é usado mapeado, sem montar os nós da árvore
+        ArvoreMapeada snapshot = null;
+        if (tabela != null) {
+            try {
+                if (decodificar) {
+                    snapshot = ArvoreMapeada.abrir(Paths.get(tabela));
+                } else {
+                    arvore = ArvoreMorse.carregarSnapshot(Paths.get(tabela));
+                }
+            } catch (IOException e) {
+                System.err.println("✗ ERRO: Não foi possível carregar a tabela " + tabela + ": " + e.getMessage());
+                return 1;
+            }
+        } else {
+            adicionarLetrasPadrao();
+        }
+        
+        try {
+            long inicio = System.nanoTime();
+            long[] naoEncontrados = new long[1];
+            long bytesLidos;
+            long bytesEscritos;
+            
+            try (FileChannel canalEntrada = FileChannel.open(Paths.get(entrada), StandardOpenOption.READ);
+                 FileChannel canalSaida = FileChannel.open(Paths.get(saida), StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                
+                bytesLidos = canalEntrada.size();
+                
+                // Os bytes mapeados são convertidos direto, sem decodificar para char.
+                // CodificadorBytes só conhece ASCII: texto com outros caracteres (acentos,
+                // kana) passa pelo CodificadorStream, que aplica as tabelas e a dobra
+                if (codificar && !apenasAscii(canalEntrada)) {
+                    bytesEscritos = codificarTexto(canalEntrada, canalSaida, naoEncontrados);
+                } else if (codificar) {
+                    CodificadorBytes codificador = new CodificadorBytes(arvore, null);
+                    bytesEscritos = converterArquivo(canalEntrada, canalSaida, codificador::codificar, null);
+                    naoEncontrados[0] = codificador.getLetrasNaoEncontradas();
+                } else {
+                    DecodificadorBytes decodificador = snapshot != null
+                            ? new DecodificadorBytes(snapshot) : new DecodificadorBytes(arvore);
+                    bytesEscritos = converterArquivo(canalEntrada, canalSaida, decodificador::decodificar, decodificador::finalizar);
+                    naoEncontrados[0] = decodificador.getCodigosNaoEncontrados();
+                }
+            }
+            
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            double megabytes = bytesLidos / (1024.0 * 1024.0);
+            System.out.printf("✓ %s -> %s: %.2f MB lidos, %.2f MB escritos em %.3f s (%.1f MB/s)%n",
+                    entrada, saida, megabytes, bytesEscritos / (1024.0 * 1024.0), segundos,
+                    segundos > 0 ? megabytes / segundos : 0.0);
+            
+            if (naoEncontrados[0] > 0) {
+                System.out.println("  ATENÇÃO: " + naoEncontrados[0]
+                        + (codificar ? " letras sem código na árvore foram ignoradas" : " códigos desconhecidos foram escritos como '?'"));
+            }
+            return 0;
+        } catch (IOException e) {
+            System.err.println("✗ ERRO: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    /**
+     * Grava o alfabeto padrão como snapshot binário (usado com --tabela)
+     * @return Código de saída do processo
+     */
+    private int salvarSnapshotPadrao(String arquivo) {
+        int letras = adicionarLetrasPadrao();
+        try {
+            arvore.salvarSnapshot(Paths.get(arquivo));
+        } catch (IOException e) {
+            System.err.println("✗ ERRO: " + e.getMessage());
+            return 1;
+        }
+        System.out.println("✓ Snapshot gravado em " + arquivo + " (" + letras + " letras)");
+        return 0;
+    }
+    
+    /**
+     * Modo servidor: atende /encode e /decode por HTTP até o processo ser encerrado.
+     * Uso: SistemaMorse serve [--port PORTA] [--cache PALAVRAS] [--mapa-calor]
+     * @return Código de saída do processo (apenas em caso de erro)
+     */
+    public int executarServidor(String[] args) {
+        int porta = 8080;
+        boolean mapaCalor = false;
+        
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                try {
+                    porta = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("ERRO: Porta inválida: " + args[i]);
+                    return 2;
+                }
+            } else if (args[i].equals("--mapa-calor")) {
+                mapaCalor = true;
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                try {
+                    arvore.ativarCacheCodificacao(Integer.parseInt(args[++i]));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("ERRO: Tamanho de cache inválido: " + args[i]);
+                    return 2;
+                }
+            }
+        }
+        
+        adicionarLetrasPadrao();
+        if (mapaCalor) {
+            arvore.ativarContadorVisitas();
+        }
+        ArvoreMorseConcorrente compartilhada = new ArvoreMorseConcorrente(arvore);
+        ServidorMorse servidor = new ServidorMorse(compartilhada, porta);
+        if (MetricasMorse.ATIVO) {
+            MetricasMorse.registrarMBean("servidor", compartilhada::getVersaoAtual);
+        }
+        
+        try {
+            servidor.iniciar();
+        } catch (IOException e) {
+            System.err.println("✗ ERRO: Não foi possível iniciar o servidor: " + e.getMessage());
+            return 1;
+        }
+        
+        System.out.println("✓ Servidor Morse ouvindo na porta " + servidor.getPorta() + " (POST /encode, POST /decode)");
+        if (mapaCalor) {
+            // Mapa de calor do tráfego do servidor (o contador é compartilhado pelas cópias)
+            TreeVisualizer.exibirNovaJanela(compartilhada.getVersaoAtual().copiar(), true);
+        }
+        return 0;
+    }
+    
+    /**
+     * Conversão de bytes no estilo CharsetEncoder (CodificadorBytes/DecodificadorBytes)
+     */
+    private interface ConversorBytes {
+        CoderResult converter(ByteBuffer entrada, ByteBuffer saida);
+    }
+    
+    private interface FinalizadorBytes {
+        CoderResult finalizar(ByteBuffer saida);
+    }
+    
+    /**
+     * Mapeia o arquivo em memória (em janelas de até JANELA_MAPEAMENTO bytes) e
+     * converte os bytes direto para um ByteBuffer de saída
+     * @param finalizador Conclui o que ficou pendente no fim da entrada (pode ser null)
+     * @return Quantidade de bytes escritos
+     */
+    private long converterArquivo(FileChannel entrada, FileChannel saida, ConversorBytes conversor,
+                                  FinalizadorBytes finalizador) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BLOCO);
+        long tamanho = entrada.size();
+        long posicao = 0;
+        long escritos = 0;
+        
+        while (posicao < tamanho) {
+            long tamanhoJanela = Math.min(JANELA_MAPEAMENTO, tamanho - posicao);
+            MappedByteBuffer janela = entrada.map(FileChannel.MapMode.READ_ONLY, posicao, tamanhoJanela);
+            
+            // OVERFLOW = buffer de saída cheio, ainda há bytes na janela
+            while (conversor.converter(janela, buffer).isOverflow()) {
+                escritos += esvaziar(buffer, saida);
+            }
+            posicao += tamanhoJanela;
+        }
+        
+        if (finalizador != null && finalizador.finalizar(buffer).isOverflow()) {
+            escritos += esvaziar(buffer, saida);
+            finalizador.finalizar(buffer);
+        }
+        return escritos + esvaziar(buffer, saida);
+    }
+    
+    /**
+     * Verifica se o arquivo só tem bytes ASCII (percorre as janelas mapeadas)
+     */
+    private static boolean apenasAscii(FileChannel entrada) throws IOException {
+        long tamanho = entrada.size();
+        for (long posicao = 0; posicao < tamanho; posicao += JANELA_MAPEAMENTO) {
+            long tamanhoJanela = Math.min(JANELA_MAPEAMENTO, tamanho - posicao);
+            MappedByteBuffer janela = entrada.map(FileChannel.MapMode.READ_ONLY, posicao, tamanhoJanela);
+            while (janela.remaining() >= Long.BYTES) {
+                if ((janela.getLong() & 0x8080808080808080L) != 0) {
+                    return false;
+                }
+            }
+            while (janela.hasRemaining()) {
+                if (janela.get() < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Codifica o arquivo como texto UTF-8 com CodificadorStream (entrada não ASCII)
+     * @return Bytes escritos
+     */
+    private long codificarTexto(FileChannel entrada, FileChannel saida, long[] naoEncontrados) throws IOException {
+        CodificadorStream codificador = new CodificadorStream(arvore, (letra, posicao) -> naoEncontrados[0]++);
+        Reader leitor = new InputStreamReader(Channels.newInputStream(entrada), StandardCharsets.UTF_8);
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(saida),
+                StandardCharsets.UTF_8), TAMANHO_BLOCO);
+        
+        // Os canais são fechados por quem os abriu
+        char[] bloco = new char[TAMANHO_BLOCO];
+        int lidos;
+        while ((lidos = leitor.read(bloco)) > 0) {
+            codificador.codificar(CharBuffer.wrap(bloco, 0, lidos), escritor);
+        }
+        escritor.flush();
+        return saida.size();
+    }
+    
+    private static int esvaziar(ByteBuffer buffer, FileChannel saida) throws IOException {
+        buffer.flip();
+        int quantidade = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            saida.write(buffer);
+        }
+        buffer.clear();
+        return quantidade;
+    }
+    
     /**
      * Método main para executar o sistema
+     * Sem argumentos abre o menu interativo; com argumentos executa o modo em lote
+     * ou o servidor HTTP
      */
     public static void main(String[] args) {
         SistemaMorse sistema = new SistemaMorse();
+        
+        if (args.length > 0 && (args[0].equals("serve") || args[0].equals("servidor"))) {
+            int codigo = sistema.executarServidor(args);
+            if (codigo != 0) {
+                System.exit(codigo);
+            }
+            return; // As threads do servidor mantêm o processo vivo
+        }
+        
+        if (args.length > 0) {
+            System.exit(sistema.executarLote(args));
+        }
+        
         sistema.executar();
     }
 }
@@ -0,0 +1,274 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tabela de códigos Morse carregada de um arquivo texto, já compilada para consulta
+ * nos dois sentidos
+ *
+ * Formato: uma letra e seu código por linha ("A .-"), linhas vazias e iniciadas por
+ * '#' são ignoradas. Prosinais são escritos entre sinais de menor e maior ("<SK> ...-.-")
+ * e viram caracteres de uso privado (ver PROSINAIS). Se duas letras tiverem o mesmo
+ * código, a primeira é usada na decodificação e as demais só na codificação.
+ *
+ * A decodificação usa um heap implícito (como ArvoreCompilada) e a codificação um
+ * índice paginado por caractere, então a tabela é imutável e pode ser compartilhada
+ * entre árvores e threads.
+ */
+public class TabelaCodigos implements TabelaDecodificacao {
+    // Prosinais conhecidos; o i-ésimo é representado pelo caractere PRIMEIRO_PROSINAL + i
+    public static final String[] PROSINAIS = {"AR", "AS", "BK", "BT", "CL", "CT", "HH", "KA", "KN", "SK", "SN", "SOS", "VE"};
+    public static final char PRIMEIRO_PROSINAL = '\uE000';
+
+    private static final String PASTA_RECURSOS = "/tabelas/";
+
+    private final String nome;
+    private final char[] letras;            // Heap implícito: posição -> letra ('\0' = vazia)
+    private final int profundidade;
+    private final String[][] paginas = new String[256][];  // Letra -> código, em páginas de 256
+    private int quantidadeLetras;
+
+    private TabelaCodigos(String nome, List<String> letras, List<String> codigos) {
+        this.nome = nome;
+
+        int maiorCodigo = -1;
+        for (String codigo : codigos) {
+            maiorCodigo = Math.max(maiorCodigo, codigo.length());
+        }
+        this.profundidade = maiorCodigo;
+        this.letras = new char[(1 << (maiorCodigo + 1)) - 1];
+
+        for (int i = 0; i < codigos.size(); i++) {
+            char letra = letras.get(i).charAt(0);
+            String codigo = codigos.get(i);
+
+            int posicao = 0;
+            for (int k = 0; k < codigo.length(); k++) {
+                posicao = 2 * posicao + (codigo.charAt(k) == '.' ? 1 : 2);
+            }
+            if (this.letras[posicao] == '\0') {
+                this.letras[posicao] = letra;
+            }
+
+            String[] pagina = paginas[letra >>> 8];
+            if (pagina == null) {
+                pagina = new String[256];
+                paginas[letra >>> 8] = pagina;
+            }
+            if (pagina[letra & 0xFF] == null) {
+                quantidadeLetras++;
+            }
+            pagina[letra & 0xFF] = codigo;
+        }
+    }
+
+    /**
+     * Lê uma tabela no formato descrito na classe
+     * @param nome Nome usado para registrar e escolher a tabela
+     * @throws IOException se a leitura falhar ou alguma linha for inválida
+     */
+    public static TabelaCodigos ler(String nome, Reader leitor) throws IOException {
+        List<String> letras = new ArrayList<>();
+        List<String> codigos = new ArrayList<>();
+        BufferedReader linhas = leitor instanceof BufferedReader ? (BufferedReader) leitor : new BufferedReader(leitor);
+
+        String linha;
+        int numero = 0;
+        while ((linha = linhas.readLine()) != null) {
+            numero++;
+            linha = linha.trim();
+            if (linha.isEmpty() || linha.startsWith("#")) {
+                continue;
+            }
+
+            String[] partes = linha.split("\\s+");
+            if (partes.length != 2) {
+                throw new IOException("Tabela " + nome + ", linha " + numero + ": esperado \"LETRA CÓDIGO\"");
+            }
+            char letra = lerLetra(partes[0]);
+            if (letra == '\0') {
+                throw new IOException("Tabela " + nome + ", linha " + numero + ": letra inválida: " + partes[0]);
+            }
+            String codigo = partes[1];
+            if (codigo.length() > ArvoreCompilada.PROFUNDIDADE_MAXIMA
+                    || !codigo.chars().allMatch(c -> c == '.' || c == '-')) {
+                throw new IOException("Tabela " + nome + ", linha " + numero + ": código inválido: " + codigo);
+            }
+
+            letras.add(String.valueOf(DobraCaracteres.maiuscula(letra)));
+            codigos.add(codigo.intern());
+        }
+
+        return new TabelaCodigos(nome, letras, codigos);
+    }
+
+    /**
+     * Lê uma tabela de um arquivo UTF-8; o nome da tabela é o nome do arquivo sem extensão
+     */
+    public static TabelaCodigos carregar(Path arquivo) throws IOException {
+        String nome = arquivo.getFileName().toString();
+        int ponto = nome.lastIndexOf('.');
+        if (ponto > 0) {
+            nome = nome.substring(0, ponto);
+        }
+        try (Reader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            return ler(nome, leitor);
+        }
+    }
+
+    /**
+     * Lê uma das tabelas embutidas no jar (pasta tabelas/ dos recursos),
+     * por exemplo "internacional" ou "wabun"
+     */
+    public static TabelaCodigos carregarRecurso(String nome) throws IOException {
+        InputStream entrada = TabelaCodigos.class.getResourceAsStream(PASTA_RECURSOS + nome + ".txt");
+        if (entrada == null) {
+            throw new IOException("Tabela não encontrada nos recursos: " + nome);
+        }
+        try (Reader leitor = new InputStreamReader(entrada, StandardCharsets.UTF_8)) {
+            return ler(nome, leitor);
+        }
+    }
+
+    /**
+     * @return Letra única, caractere do prosinal ("<SK>"), ou '\0' se inválida
+     */
+    private static char lerLetra(String texto) {
+        if (texto.length() == 1) {
+            return texto.charAt(0);
+        }
+        if (texto.length() > 2 && texto.startsWith("<") && texto.endsWith(">")) {
+            return prosinal(texto.substring(1, texto.length() - 1));
+        }
+        return '\0';
+    }
+
+    /**
+     * Retorna o caractere que representa um prosinal (ex: "SK"), ou '\0' se não for conhecido
+     */
+    public static char prosinal(String nome) {
+        for (int i = 0; i < PROSINAIS.length; i++) {
+            if (PROSINAIS[i].equals(nome)) {
+                return (char) (PRIMEIRO_PROSINAL + i);
+            }
+        }
+        return '\0';
+    }
+
+    /**
+     * Troca as marcações "<SK>" do texto pelos caracteres dos prosinais
+     */
+    public static String substituirProsinais(String texto) {
+        if (texto.indexOf('<') < 0) {
+            return texto;
+        }
+        StringBuilder resultado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            int fim = c == '<' ? texto.indexOf('>', i) : -1;
+            char letra = fim > i ? prosinal(texto.substring(i + 1, fim)) : '\0';
+            if (letra != '\0') {
+                resultado.append(letra);
+                i = fim;
+            } else {
+                resultado.append(c);
+            }
+        }
+        return resultado.toString();
+    }
+
+    /**
+     * Troca os caracteres dos prosinais pelas marcações "<SK>" (para exibição)
+     */
+    public static String nomearProsinais(String texto) {
+        StringBuilder resultado = null;
+        for (int i = 0; i < texto.length(); i++) {
+            int indice = texto.charAt(i) - PRIMEIRO_PROSINAL;
+            if (indice >= 0 && indice < PROSINAIS.length) {
+                if (resultado == null) {
+                    resultado = new StringBuilder(texto.length() + 8).append(texto, 0, i);
+                }
+                resultado.append('<').append(PROSINAIS[indice]).append('>');
+            } else if (resultado != null) {
+                resultado.append(texto.charAt(i));
+            }
+        }
+        return resultado != null ? resultado.toString() : texto;
+    }
+
+    /**
+     * Busca o código de uma letra (já em maiúscula)
+     * @return Código Morse ou null se a letra não estiver na tabela
+     */
+    public String buscarCodigo(char letra) {
+        String[] pagina = paginas[letra >>> 8];
+        return pagina != null ? pagina[letra & 0xFF] : null;
+    }
+
+    @Override
+    public char decodificarSimbolo(int comprimento, int bits) {
+        if (comprimento > profundidade) {
+            return '\0';
+        }
+        return letras[(1 << comprimento) - 1 + bits];
+    }
+
+    @Override
+    public char decodificarCodigo(CharSequence texto, int inicio, int fim) {
+        int comprimento = fim - inicio;
+        if (comprimento > profundidade) {
+            return '\0';
+        }
+
+        int posicao = 0;
+        for (int i = inicio; i < fim; i++) {
+            char simbolo = texto.charAt(i);
+            if (simbolo == '.') {
+                posicao = 2 * posicao + 1;
+            } else if (simbolo == '-') {
+                posicao = 2 * posicao + 2;
+            } else {
+                return '\0';
+            }
+        }
+
+        return letras[posicao];
+    }
+
+    /**
+     * Retorna a letra decodificada na posição do heap ('\0' = vazia)
+     */
+    char getLetraNaPosicao(int posicao) {
+        return letras[posicao];
+    }
+
+    /**
+     * Quantidade de posições do heap (para percorrer com getLetraNaPosicao)
+     */
+    int getQuantidadePosicoes() {
+        return letras.length;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Quantidade de letras codificáveis (incluindo as que compartilham código)
+     */
+    public int getQuantidadeLetras() {
+        return quantidadeLetras;
+    }
+
+    @Override
+    public int getProfundidade() {
+        return profundidade;
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * Consulta de letras por código no formato de heap implícito
+ * (raiz = 0, filho do ponto = 2i + 1, filho do traço = 2i + 2)
+ *
+ * Implementada pela árvore compilada em memória (ArvoreCompilada) e pelo snapshot
+ * mapeado de arquivo (ArvoreMapeada).
+ */
+public interface TabelaDecodificacao {
+    /**
+     * Decodifica um símbolo já convertido em bits
+     * @param comprimento Quantidade de pontos/traços
+     * @param bits Bits do código (ponto = 0, traço = 1), primeiro símbolo no bit mais alto
+     * @return Letra correspondente ou '\0' se não existir
+     */
+    char decodificarSimbolo(int comprimento, int bits);
+
+    /**
+     * Decodifica o código contido em texto[inicio, fim) sem criar substrings
+     * @return Letra correspondente ou '\0' se o código não existir ou for inválido
+     */
+    char decodificarCodigo(CharSequence texto, int inicio, int fim);
+
+    /**
+     * Retorna a profundidade da tabela (0 = apenas a raiz, -1 = vazia)
+     */
+    int getProfundidade();
+}
@@ -7,11 +7,20 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TreeVisualizer extends Application {
 
     private static ArvoreMorse arvore;
     private static boolean javaFxStarted = false;
+    private static boolean modoEscalavel = false;
+
+    // Janelas do modo escalável (a lista só é usada na thread do JavaFX). A quantidade
+    // conta também as janelas pedidas que o JavaFX ainda não criou.
+    private static final List<VisualizacaoEscalavel> janelasEscalaveis = new ArrayList<>();
+    private static final AtomicInteger quantidadeJanelasEscalaveis = new AtomicInteger();
 
     // Método para injetar a árvore do sistema principal
     public static void setArvore(ArvoreMorse arvore) {
@@ -20,7 +29,20 @@ public class TreeVisualizer extends Application {
     
     // Método para exibir nova janela
     public static void exibirNovaJanela(ArvoreMorse arvoreParaExibir) {
+        exibirNovaJanela(arvoreParaExibir, false);
+    }
+
+    /**
+     * Exibe nova janela
+     * @param escalavel true para o modo escalável (layout sem sobreposição, zoom,
+     *                  desenho só da área visível e atualização via atualizarArvore)
+     */
+    public static void exibirNovaJanela(ArvoreMorse arvoreParaExibir, boolean escalavel) {
         arvore = arvoreParaExibir;
+        modoEscalavel = escalavel;
+        if (escalavel) {
+            quantidadeJanelasEscalaveis.incrementAndGet();
+        }
         
         if (!javaFxStarted) {
             // Primeira vez - inicia o JavaFX
@@ -35,6 +57,30 @@ public class TreeVisualizer extends Application {
         }
     }
 
+    /**
+     * Envia a árvore alterada às janelas do modo escalável abertas.
+     * A cópia é feita na thread de quem chama (a dona da árvore).
+     */
+    public static void atualizarArvore(ArvoreMorse arvoreAlterada) {
+        if (!possuiJanelasEscalaveis()) {
+            return;
+        }
+        
+        ArvoreMorse copia = arvoreAlterada.copiar();
+        Platform.runLater(() -> {
+            for (VisualizacaoEscalavel janela : janelasEscalaveis) {
+                janela.atualizar(copia);
+            }
+        });
+    }
+
+    /**
+     * Indica se há janelas do modo escalável abertas (ou sendo abertas)
+     */
+    public static boolean possuiJanelasEscalaveis() {
+        return quantidadeJanelasEscalaveis.get() > 0;
+    }
+
     // Calcula a altura da árvore
     public int getHeight(No node) {
         if (node == null) {
@@ -130,6 +176,11 @@ public class TreeVisualizer extends Application {
             return;
         }
 
+        if (modoEscalavel) {
+            configurarJanelaEscalavel(stage);
+            return;
+        }
+
         // Inicialização de Janela
         int height = getHeight(arvore.getRaiz());
         // Cálculo de altura e largura muito mais compacto
@@ -156,4 +207,21 @@ public class TreeVisualizer extends Application {
         
         stage.show();
     }
+
+    private void configurarJanelaEscalavel(Stage stage) {
+        VisualizacaoEscalavel janela = new VisualizacaoEscalavel(stage);
+        janelasEscalaveis.add(janela);
+        
+        stage.setOnCloseRequest(e -> {
+            janelasEscalaveis.remove(janela);
+            quantidadeJanelasEscalaveis.decrementAndGet();
+            stage.close();
+        });
+        
+        janela.atualizar(arvore);
+        if (arvore.getContadorVisitas() != null) {
+            janela.ativarMapaCalor(arvore.getContadorVisitas());
+        }
+        janela.exibir();
+    }
 }
@@ -0,0 +1,356 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
+
+/**
+ * Janela do visualizador para árvores grandes ou profundas
+ *
+ * O layout (LayoutArvore) é calculado em uma thread de fundo e guardado até a árvore
+ * mudar de versão. A thread do JavaFX só desenha os nós que caem na área visível.
+ * Arrastar com o mouse move a vista; a roda do mouse aproxima e afasta.
+ * Quando a árvore é alterada, apenas a região dos nós que mudaram é redesenhada.
+ *
+ * Com o mapa de calor ativo, uma thread de fundo amostra o ContadorVisitas e um
+ * AnimationTimer aplica no máximo uma amostra nova a cada INTERVALO_QUADRO_MS,
+ * colorindo nós e arestas pela quantidade de visitas (escala logarítmica). A thread
+ * do JavaFX nunca recebe tarefas acumuladas: amostras não aplicadas são substituídas.
+ */
+public class VisualizacaoEscalavel {
+    // Abaixo deste zoom as letras e símbolos das arestas não são desenhados
+    private static final double ZOOM_MINIMO_TEXTO = 0.6;
+    private static final double ZOOM_MINIMO = 0.02;
+    private static final double ZOOM_MAXIMO = 8;
+    private static final long INTERVALO_AMOSTRAGEM_MS = 100;
+    private static final long INTERVALO_QUADRO_MS = 100;
+
+    private static final ExecutorService CALCULO_LAYOUT = Executors.newSingleThreadExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "layout-arvore");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ScheduledExecutorService AMOSTRAGEM = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "amostragem-mapa-calor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Stage stage;
+    private final Canvas canvas;
+    private final Label status;
+    private final Font fonte = new Font("Arial", 10);
+
+    // Estado da thread do JavaFX
+    private LayoutArvore layout;
+    private double deslocamentoX;
+    private double deslocamentoY;
+    private double zoom = 1;
+    private double ultimoMouseX;
+    private double ultimoMouseY;
+
+    private long[] visitas;         // Última amostra aplicada (null = sem mapa de calor)
+    private AnimationTimer temporizador;
+
+    // Estado da thread de layout
+    private final AtomicReference<ArvoreMorse> pendente = new AtomicReference<>();
+    private LayoutArvore ultimoCalculado;
+
+    // Estado da thread de amostragem
+    private final AtomicReference<long[]> amostraPendente = new AtomicReference<>();
+    private ScheduledFuture<?> amostragem;
+    private long ultimoTotal = -1;
+
+    public VisualizacaoEscalavel(Stage stage) {
+        this.stage = stage;
+        this.canvas = new Canvas(800, 600);
+        this.status = new Label("Calculando layout...");
+        this.status.setLayoutX(8);
+        this.status.setLayoutY(4);
+
+        Pane painel = new Pane(canvas, status);
+        canvas.widthProperty().bind(painel.widthProperty());
+        canvas.heightProperty().bind(painel.heightProperty());
+        canvas.widthProperty().addListener(o -> redesenharTudo());
+        canvas.heightProperty().addListener(o -> redesenharTudo());
+        configurarMouse();
+
+        stage.setTitle("Visualizador de Árvore Binária Morse");
+        stage.setScene(new Scene(painel, 800, 600));
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, e -> desativarMapaCalor());
+    }
+
+    /**
+     * Passa a colorir a árvore pelas visitas registradas no contador
+     * (chamar na thread do JavaFX)
+     */
+    public void ativarMapaCalor(ContadorVisitas contador) {
+        desativarMapaCalor();
+
+        amostragem = AMOSTRAGEM.scheduleAtFixedRate(() -> amostrar(contador),
+                0, INTERVALO_AMOSTRAGEM_MS, TimeUnit.MILLISECONDS);
+
+        temporizador = new AnimationTimer() {
+            private long ultimoQuadro;
+
+            @Override
+            public void handle(long agora) {
+                if (agora - ultimoQuadro < TimeUnit.MILLISECONDS.toNanos(INTERVALO_QUADRO_MS)) {
+                    return;
+                }
+                long[] amostra = amostraPendente.getAndSet(null);
+                if (amostra != null) {
+                    ultimoQuadro = agora;
+                    visitas = amostra;
+                    status.setText((layout != null ? layout.getQuantidade() + " nós, " : "")
+                            + amostra[0] + " letras contadas");
+                    redesenharTudo();
+                }
+            }
+        };
+        temporizador.start();
+    }
+
+    public void desativarMapaCalor() {
+        if (amostragem != null) {
+            amostragem.cancel(false);
+            amostragem = null;
+        }
+        if (temporizador != null) {
+            temporizador.stop();
+            temporizador = null;
+        }
+    }
+
+    /**
+     * Roda na thread de amostragem: só publica a amostra se houve tráfego novo
+     */
+    private void amostrar(ContadorVisitas contador) {
+        long[] amostra = new long[contador.getQuantidadePosicoes()];
+        long total = contador.amostrar(amostra);
+        if (total != ultimoTotal) {
+            ultimoTotal = total;
+            amostraPendente.set(amostra);
+        }
+    }
+
+    /**
+     * Mostra a janela
+     */
+    public void exibir() {
+        stage.show();
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * Agenda o cálculo do layout de uma cópia da árvore (pode ser chamado de qualquer
+     * thread). Cópias recebidas enquanto um cálculo está em andamento são agrupadas:
+     * só a mais recente é calculada.
+     */
+    public void atualizar(ArvoreMorse copia) {
+        if (pendente.getAndSet(copia) == null) {
+            CALCULO_LAYOUT.execute(this::calcularPendente);
+        }
+    }
+
+    private void calcularPendente() {
+        ArvoreMorse arvore = pendente.getAndSet(null);
+        if (arvore == null) {
+            return;
+        }
+
+        LayoutArvore anterior = ultimoCalculado;
+        if (anterior != null && anterior.getVersao() == arvore.getVersao()) {
+            return; // Layout em cache ainda vale
+        }
+
+        LayoutArvore novo = LayoutArvore.calcular(arvore);
+        double[] regiao = anterior != null ? novo.regiaoAlterada(anterior) : null;
+        ultimoCalculado = novo;
+        Platform.runLater(() -> aplicarLayout(novo, regiao));
+    }
+
+    private void aplicarLayout(LayoutArvore novo, double[] regiaoAlterada) {
+        boolean primeiro = layout == null;
+        layout = novo;
+        status.setText(novo.getQuantidade() + " nós");
+
+        if (primeiro) {
+            // Começa mostrando a árvore inteira quando ela cabe, ou o topo centralizado
+            zoom = Math.max(ZOOM_MINIMO, Math.min(1, canvas.getWidth() / novo.getLargura()));
+            deslocamentoX = (canvas.getWidth() - novo.getLargura() * zoom) / 2;
+            deslocamentoY = 0;
+            redesenharTudo();
+        } else if (regiaoAlterada != null) {
+            redesenharRegiao(regiaoAlterada[0], regiaoAlterada[1], regiaoAlterada[2], regiaoAlterada[3]);
+        }
+    }
+
+    private void configurarMouse() {
+        canvas.setOnMousePressed(e -> {
+            ultimoMouseX = e.getX();
+            ultimoMouseY = e.getY();
+        });
+        canvas.setOnMouseDragged(e -> {
+            if (e.getButton() != MouseButton.PRIMARY) {
+                return;
+            }
+            deslocamentoX += e.getX() - ultimoMouseX;
+            deslocamentoY += e.getY() - ultimoMouseY;
+            ultimoMouseX = e.getX();
+            ultimoMouseY = e.getY();
+            redesenharTudo();
+        });
+        canvas.setOnScroll(e -> {
+            double fator = Math.pow(1.1, e.getDeltaY() / 40);
+            double novoZoom = Math.max(ZOOM_MINIMO, Math.min(ZOOM_MAXIMO, zoom * fator));
+            // Mantém fixo o ponto da árvore sob o cursor
+            deslocamentoX = e.getX() - (e.getX() - deslocamentoX) * novoZoom / zoom;
+            deslocamentoY = e.getY() - (e.getY() - deslocamentoY) * novoZoom / zoom;
+            zoom = novoZoom;
+            redesenharTudo();
+        });
+    }
+
+    /**
+     * Redesenha toda a área visível
+     */
+    public void redesenharTudo() {
+        double x0 = -deslocamentoX / zoom;
+        double y0 = -deslocamentoY / zoom;
+        redesenharRegiao(x0, y0, x0 + canvas.getWidth() / zoom, y0 + canvas.getHeight() / zoom);
+    }
+
+    /**
+     * Redesenha o retângulo da árvore (coordenadas do layout), limitado à área visível
+     */
+    public void redesenharRegiao(double x0, double y0, double x1, double y1) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+
+        // Retângulo na tela, arredondado para fora para não deixar restos nas bordas
+        double telaX0 = Math.max(0, Math.floor(x0 * zoom + deslocamentoX) - 1);
+        double telaY0 = Math.max(0, Math.floor(y0 * zoom + deslocamentoY) - 1);
+        double telaX1 = Math.min(canvas.getWidth(), Math.ceil(x1 * zoom + deslocamentoX) + 1);
+        double telaY1 = Math.min(canvas.getHeight(), Math.ceil(y1 * zoom + deslocamentoY) + 1);
+        if (telaX0 >= telaX1 || telaY0 >= telaY1) {
+            return;
+        }
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(telaX0, telaY0, telaX1 - telaX0, telaY1 - telaY0);
+        gc.clip();
+        gc.clearRect(telaX0, telaY0, telaX1 - telaX0, telaY1 - telaY0);
+
+        if (layout != null) {
+            gc.translate(deslocamentoX, deslocamentoY);
+            gc.scale(zoom, zoom);
+            gc.setFont(fonte);
+            gc.setLineWidth(1.0 / Math.max(zoom, 1));
+
+            double mundoX0 = (telaX0 - deslocamentoX) / zoom;
+            double mundoY0 = (telaY0 - deslocamentoY) / zoom;
+            double mundoX1 = (telaX1 - deslocamentoX) / zoom;
+            double mundoY1 = (telaY1 - deslocamentoY) / zoom;
+            boolean texto = zoom >= ZOOM_MINIMO_TEXTO;
+
+            // Primeiro as arestas, depois os nós por cima
+            layout.visitarRetangulo(mundoX0, mundoY0, mundoX1, mundoY1, no -> desenharAresta(gc, no, texto));
+            layout.visitarRetangulo(mundoX0, mundoY0, mundoX1, mundoY1, no -> desenharNo(gc, no, texto));
+        }
+
+        gc.restore();
+    }
+
+    private void desenharAresta(GraphicsContext gc, int no, boolean texto) {
+        int pai = layout.getPai(no);
+        if (pai < 0) {
+            return;
+        }
+
+        double x = layout.getX(no);
+        double y = layout.getY(no);
+        double xPai = layout.getX(pai);
+        double yPai = layout.getY(pai);
+        double calor = calor(no);
+        if (calor > 0) {
+            gc.setStroke(corCalor(calor));
+            gc.setLineWidth((1 + 3 * calor) / Math.max(zoom, 1));
+        } else {
+            gc.setStroke(Color.web("#ccc"));
+            gc.setLineWidth(1.0 / Math.max(zoom, 1));
+        }
+        gc.strokeLine(xPai, yPai + LayoutArvore.RAIO, x, y - LayoutArvore.RAIO);
+
+        if (texto) {
+            String codigo = layout.getCodigo(no);
+            gc.setFill(Color.BLACK);
+            gc.fillText(codigo.substring(codigo.length() - 1), (x + xPai) / 2, (y + yPai) / 2 - 3);
+        }
+    }
+
+    /**
+     * @return Visitas do nó relativas às da raiz, em escala logarítmica (0 a 1)
+     */
+    private double calor(int no) {
+        int posicao = layout.getPosicaoHeap(no);
+        if (visitas == null || visitas[0] == 0 || posicao < 0 || posicao >= visitas.length) {
+            return 0;
+        }
+        return Math.log1p(visitas[posicao]) / Math.log1p(visitas[0]);
+    }
+
+    /**
+     * Amarelo claro (pouco usado) a vermelho (muito usado)
+     */
+    private static Color corCalor(double calor) {
+        return Color.hsb(55 * (1 - calor), 0.2 + 0.8 * calor, 1.0);
+    }
+
+    private void desenharNo(GraphicsContext gc, int no, boolean texto) {
+        double x = layout.getX(no);
+        double y = layout.getY(no);
+        double raio = LayoutArvore.RAIO;
+
+        if (layout.isVazio(no)) {
+            gc.setStroke(Color.LIGHTGRAY);
+            gc.setFill(Color.web("#f9f9f9"));
+        } else {
+            gc.setStroke(Color.web("#007bff"));
+            gc.setFill(Color.web("#e7f3ff"));
+        }
+        double calor = calor(no);
+        if (calor > 0) {
+            gc.setFill(corCalor(calor));
+        }
+        gc.setLineWidth(1.0 / Math.max(zoom, 1));
+        gc.fillOval(x - raio, y - raio, 2 * raio, 2 * raio);
+        gc.strokeOval(x - raio, y - raio, 2 * raio, 2 * raio);
+
+        if (texto) {
+            if (layout.isVazio(no)) {
+                gc.setFill(Color.GRAY);
+                gc.fillText("ø", x - 3, y + 3);
+            } else {
+                gc.setFill(Color.BLACK);
+                gc.fillText(String.valueOf(layout.getLetra(no)), x - 3, y + 3);
+            }
+        }
+    }
+}